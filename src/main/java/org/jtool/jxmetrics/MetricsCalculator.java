@@ -7,10 +7,13 @@ package org.jtool.jxmetrics;
 
 import org.jtool.jxmetrics.core.MetricsStore;
 import org.jtool.jxmetrics.core.MetricsManager;
+import org.jtool.jxmetrics.core.MetricSelection;
 import org.jtool.jxplatform.builder.CommandLineOptions;
 import java.io.File;
+import java.io.PrintStream;
 import java.nio.file.Paths;
 import java.nio.file.Files;
+import java.util.Arrays;
 
 /**
  * Calculates metric values.
@@ -56,15 +59,79 @@ public class MetricsCalculator {
             output = MetricsManager.JXMETRICS_PREFIX + "-" + name + 
                     "-" + MetricsManager.TIME_BOILERPLATE + MetricsManager.XML_FILENAME_EXT;
         }
-        if (!output.startsWith(File.separator)) {
+        if (!output.startsWith(File.separator) && !output.equals(MetricsManager.STDOUT)) {
             output = target + File.separatorChar + output;
         }
         
         boolean logging = options.get("-logging", "on").equals("on") ? true : false;
         
+        int threads;
+        try {
+            threads = Integer.parseInt(options.get("-threads", "1"));
+        } catch (NumberFormatException e) {
+            threads = 0;
+        }
+        if (threads < 1) {
+            System.err.println("Invalid number of threads");
+            return;
+        }
+        
+        MetricSelection selection = MetricSelection.ALL;
+        String metrics = options.get("-metrics", "");
+        if (metrics.length() > 0) {
+            try {
+                selection = MetricSelection.of(Arrays.asList(metrics.split(",")));
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                return;
+            }
+        }
+        
+        boolean jsonLines = output.equals(MetricsManager.STDOUT) ||
+                output.endsWith(MetricsManager.JSONL_FILENAME_EXT) ||
+                output.endsWith(MetricsManager.JSONL_FILENAME_EXT + MetricsManager.GZIP_FILENAME_EXT);
+        
+        int deflateLevel;
+        String compression = options.get("-compression", null);
+        if (compression == null) {
+            deflateLevel = output.endsWith(MetricsManager.GZIP_FILENAME_EXT) ? MetricsManager.DEFAULT_DEFLATE_LEVEL : -1;
+        } else {
+            if (output.equals(MetricsManager.STDOUT)) {
+                System.err.println("No compression for the standard output");
+                return;
+            }
+            try {
+                deflateLevel = Integer.parseInt(compression);
+            } catch (NumberFormatException e) {
+                deflateLevel = -1;
+            }
+            if (deflateLevel < 0 || deflateLevel > 9) {
+                System.err.println("Invalid level of compression");
+                return;
+            }
+            if (!output.endsWith(MetricsManager.GZIP_FILENAME_EXT)) {
+                output = output + MetricsManager.GZIP_FILENAME_EXT;
+            }
+        }
+        
         MetricsManager manager = new MetricsManager();
-        MetricsStore mstore = manager.calculate(name, target, logging);
-        manager.exportXML(mstore, output);
+        if (output.equals(MetricsManager.STDOUT)) {
+            PrintStream stdout = System.out;
+            System.setOut(System.err);
+            try {
+                MetricsStore mstore = manager.calculate(name, target, logging, threads, selection);
+                manager.exportJsonLines(mstore, stdout);
+            } finally {
+                System.setOut(stdout);
+            }
+        } else {
+            MetricsStore mstore = manager.calculate(name, target, logging, threads, selection);
+            if (jsonLines) {
+                manager.exportJsonLines(mstore, output, deflateLevel);
+            } else {
+                manager.exportXML(mstore, output, deflateLevel);
+            }
+        }
         manager.unbuild();
     }
 }
@@ -11,6 +11,9 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.stream.StreamResult;
+import javax.xml.stream.XMLStreamException;
+import org.jtool.jxmetrics.core.MetricDataWriter;
+import org.jtool.jxmetrics.core.MetricsStore;
 import org.w3c.dom.Document;
 import java.io.File;
 import java.io.BufferedWriter;
@@ -22,9 +25,20 @@ import java.io.StringWriter;
  * Writes the contents of a DOM instance into an XML file.
  * 
  * @author Katsuhisa Maruyama
+ * @deprecated Use {@link MetricDataWriter}, which streams a store into an XML file without building a DOM.
  */
+@Deprecated
 public class XMLWriter {
     
+    public static void write(File file, MetricsStore mstore) {
+        try {
+            new MetricDataWriter().write(mstore, file.toPath());
+            
+        } catch (IOException | XMLStreamException e) {
+            System.err.println("XML: Export error occurred: " + e.getMessage() + ".");
+        }
+    }
+    
     public static void write(File file, Document doc) {
         try {
             Transformer transformer = TransformerFactory.newInstance().newTransformer();
@@ -0,0 +1,76 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.srcmodel.JavaProject;
+import org.jtool.srcmodel.JavaMethod;
+import org.jtool.srcmodel.JavaField;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indexes getter and setter methods within a project.
+ * Each method is classified only once, from the shape of its body if it determines the result
+ * and otherwise from its CFG.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class AccessorIndex {
+    
+    private static Map<JavaProject, AccessorIndex> indices = new ConcurrentHashMap<>();
+    
+    private JavaProject jproject;
+    
+    private Map<JavaMethod, Optional<JavaField>> accessors = new ConcurrentHashMap<>();
+    
+    private AccessorIndex(JavaProject jproject) {
+        this.jproject = jproject;
+    }
+    
+    public static AccessorIndex getInstance(JavaProject jproject) {
+        return indices.computeIfAbsent(jproject, jp -> new AccessorIndex(jp));
+    }
+    
+    public static void remove(JavaProject jproject) {
+        indices.remove(jproject);
+    }
+    
+    public static void clear() {
+        indices.clear();
+    }
+    
+    public JavaField getFieldbyAccessor(JavaMethod jmethod) {
+        return accessors.computeIfAbsent(jmethod, jm -> classify(jm)).orElse(null);
+    }
+    
+    public boolean isAccessor(JavaMethod jmethod) {
+        return getFieldbyAccessor(jmethod) != null;
+    }
+    
+    private Optional<JavaField> classify(JavaMethod jmethod) {
+        if (isSetter(jmethod) || isGetter(jmethod)) {
+            return Optional.of(jmethod.getAccessedFields().iterator().next());
+        }
+        return Optional.empty();
+    }
+    
+    private boolean isSetter(JavaMethod jmethod) {
+        AccessorRecognizer.Result result = AccessorRecognizer.recognizeSetter(jmethod);
+        if (result == AccessorRecognizer.Result.UNKNOWN) {
+            return MethodMetrics.isSetter(jproject, jmethod);
+        }
+        return result == AccessorRecognizer.Result.ACCESSOR;
+    }
+    
+    private boolean isGetter(JavaMethod jmethod) {
+        AccessorRecognizer.Result result = AccessorRecognizer.recognizeGetter(jmethod);
+        if (result == AccessorRecognizer.Result.UNKNOWN) {
+            return MethodMetrics.isGetter(jproject, jmethod);
+        }
+        return result == AccessorRecognizer.Result.ACCESSOR;
+    }
+}
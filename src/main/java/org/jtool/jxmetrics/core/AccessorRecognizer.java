@@ -0,0 +1,198 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.srcmodel.JavaMethod;
+import org.jtool.srcmodel.JavaField;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.ReturnStatement;
+import org.eclipse.jdt.core.dom.ExpressionStatement;
+import org.eclipse.jdt.core.dom.EmptyStatement;
+import org.eclipse.jdt.core.dom.LabeledStatement;
+import org.eclipse.jdt.core.dom.SynchronizedStatement;
+import org.eclipse.jdt.core.dom.TypeDeclarationStatement;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.ParenthesizedExpression;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.CastExpression;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.NumberLiteral;
+import org.eclipse.jdt.core.dom.BooleanLiteral;
+import org.eclipse.jdt.core.dom.CharacterLiteral;
+import org.eclipse.jdt.core.dom.StringLiteral;
+import org.eclipse.jdt.core.dom.NullLiteral;
+
+/**
+ * Recognizes getter and setter methods from the shape of their bodies without building CFGs.
+ * The recognition follows {@link MethodMetrics#isGetter} and {@link MethodMetrics#isSetter}:
+ * a getter consists of a single return whose expression reads only its field and calls no method,
+ * and a setter consists of a single assignment to its field whose right-hand side reads only its parameter.
+ * A body whose CFG cannot be predicted from its shape is reported as {@link Result#UNKNOWN},
+ * which is left to the CFG-based recognition.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class AccessorRecognizer {
+    
+    public enum Result {
+        ACCESSOR, NOT_ACCESSOR, UNKNOWN;
+    }
+    
+    public static Result recognizeSetter(JavaMethod jmethod) {
+        if (jmethod.isPrivate() || jmethod.getParameterSize() != 1 || jmethod.getAccessedFields().size() != 1) {
+            return Result.NOT_ACCESSOR;
+        }
+        
+        MethodDeclaration node = getMethodDeclaration(jmethod);
+        if (node == null || node.getBody() == null || node.parameters().size() != 1) {
+            return Result.UNKNOWN;
+        }
+        
+        Statement statement = getSingleStatement(node);
+        if (statement == null || !isPlain(statement)) {
+            return hasPlainStatements(node) ? Result.NOT_ACCESSOR : Result.UNKNOWN;
+        }
+        if (!(statement instanceof ExpressionStatement)) {
+            return Result.NOT_ACCESSOR;
+        }
+        
+        Expression expression = ((ExpressionStatement)statement).getExpression();
+        if (!(expression instanceof Assignment)) {
+            return Result.UNKNOWN;
+        }
+        Assignment assignment = (Assignment)expression;
+        if (assignment.getOperator() != Assignment.Operator.ASSIGN) {
+            return Result.UNKNOWN;
+        }
+        
+        String param = ((SingleVariableDeclaration)node.parameters().get(0)).getName().getIdentifier();
+        Expression lhs = unparenthesize(assignment.getLeftHandSide());
+        if (lhs instanceof SimpleName && ((SimpleName)lhs).getIdentifier().equals(param)) {
+            return Result.NOT_ACCESSOR;
+        }
+        if (countReferences(lhs, getAccessedField(jmethod).getName()) != 1) {
+            return Result.UNKNOWN;
+        }
+        
+        int count = countReferences(assignment.getRightHandSide(), param);
+        if (count == 1) {
+            return Result.ACCESSOR;
+        } else if (count == 0) {
+            return Result.NOT_ACCESSOR;
+        }
+        return Result.UNKNOWN;
+    }
+    
+    public static Result recognizeGetter(JavaMethod jmethod) {
+        if (jmethod.getParameterSize() != 0 || jmethod.getAccessedFields().size() != 1) {
+            return Result.NOT_ACCESSOR;
+        }
+        
+        MethodDeclaration node = getMethodDeclaration(jmethod);
+        if (node == null || node.getBody() == null) {
+            return Result.UNKNOWN;
+        }
+        
+        Statement statement = getSingleStatement(node);
+        if (statement == null || !isPlain(statement)) {
+            return hasPlainStatements(node) ? Result.NOT_ACCESSOR : Result.UNKNOWN;
+        }
+        if (!(statement instanceof ReturnStatement)) {
+            return Result.NOT_ACCESSOR;
+        }
+        
+        Expression expression = ((ReturnStatement)statement).getExpression();
+        if (expression != null && countReferences(expression, getAccessedField(jmethod).getName()) == 1) {
+            return Result.ACCESSOR;
+        }
+        return Result.UNKNOWN;
+    }
+    
+    private static MethodDeclaration getMethodDeclaration(JavaMethod jmethod) {
+        ASTNode node = jmethod.getASTNode();
+        if (node instanceof MethodDeclaration) {
+            return (MethodDeclaration)node;
+        }
+        return null;
+    }
+    
+    private static Statement getSingleStatement(MethodDeclaration node) {
+        Block body = node.getBody();
+        if (body.statements().size() == 1) {
+            return (Statement)body.statements().get(0);
+        }
+        return null;
+    }
+    
+    private static boolean hasPlainStatements(MethodDeclaration node) {
+        for (Object statement : node.getBody().statements()) {
+            if (!isPlain((Statement)statement)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isPlain(Statement statement) {
+        return !(statement instanceof Block || statement instanceof LabeledStatement ||
+                statement instanceof SynchronizedStatement ||
+                statement instanceof EmptyStatement || statement instanceof TypeDeclarationStatement);
+    }
+    
+    private static JavaField getAccessedField(JavaMethod jmethod) {
+        return jmethod.getAccessedFields().iterator().next();
+    }
+    
+    private static Expression unparenthesize(Expression expression) {
+        while (expression instanceof ParenthesizedExpression) {
+            expression = ((ParenthesizedExpression)expression).getExpression();
+        }
+        return expression;
+    }
+    
+    /**
+     * Counts the references to a variable within an expression that consists only of
+     * simple names, literals, binary operators, and casts.
+     * Field accesses qualified with {@code this} or {@code super} and unary operators are not accepted,
+     * since the variables that the CFG uses for them are not predicted from the AST.
+     * @param expression the expression to be checked
+     * @param name the name of the variable
+     * @return the number of the references, or {@code -1} if the expression contains other elements
+     */
+    private static int countReferences(Expression expression, String name) {
+        expression = unparenthesize(expression);
+        if (expression instanceof SimpleName) {
+            return ((SimpleName)expression).getIdentifier().equals(name) ? 1 : -1;
+        } else if (expression instanceof NumberLiteral || expression instanceof BooleanLiteral ||
+                expression instanceof CharacterLiteral || expression instanceof StringLiteral ||
+                expression instanceof NullLiteral) {
+            return 0;
+        } else if (expression instanceof CastExpression) {
+            return countReferences(((CastExpression)expression).getExpression(), name);
+        } else if (expression instanceof InfixExpression) {
+            InfixExpression infix = (InfixExpression)expression;
+            int count = add(countReferences(infix.getLeftOperand(), name),
+                    countReferences(infix.getRightOperand(), name));
+            for (Object operand : infix.extendedOperands()) {
+                count = add(count, countReferences((Expression)operand, name));
+            }
+            return count;
+        }
+        return -1;
+    }
+    
+    private static int add(int count1, int count2) {
+        if (count1 < 0 || count2 < 0) {
+            return -1;
+        }
+        return count1 + count2;
+    }
+}
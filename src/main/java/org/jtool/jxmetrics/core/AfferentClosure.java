@@ -0,0 +1,51 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.srcmodel.JavaProject;
+import org.jtool.srcmodel.JavaPackage;
+import org.jtool.srcmodel.JavaClass;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calculates the number of classes transitively reachable through afferent dependencies within a project.
+ * The afferent dependency graph of a project is condensed once, and the counts are kept until the project is removed.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class AfferentClosure {
+    
+    private static Map<JavaProject, AfferentClosure> closures = new ConcurrentHashMap<>();
+    
+    private Condensation<JavaClass> condensation;
+    
+    private AfferentClosure(JavaProject jproject) {
+        List<JavaClass> classes = new ArrayList<>();
+        for (JavaPackage jpackage : jproject.getPackages()) {
+            classes.addAll(jpackage.getClasses());
+        }
+        condensation = new Condensation<>(classes, jc -> jc.getAfferentClassesInProject());
+    }
+    
+    public static AfferentClosure getInstance(JavaProject jproject) {
+        return closures.computeIfAbsent(jproject, jp -> new AfferentClosure(jp));
+    }
+    
+    public static void remove(JavaProject jproject) {
+        closures.remove(jproject);
+    }
+    
+    public static void clear() {
+        closures.clear();
+    }
+    
+    public int getNumberOfReachableClasses(JavaClass jclass) {
+        return condensation.getNumberOfReachableNodes(jclass);
+    }
+}
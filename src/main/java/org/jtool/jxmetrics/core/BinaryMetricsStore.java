@@ -0,0 +1,243 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+
+/**
+ * Writes and reads metric values in a compact binary format.
+ * A file starts with a table of all the strings it contains, such as qualified names and the names of metrics,
+ * which are referred to by their indices. Counts, indices, and code positions are encoded as variable-length
+ * integers, and metric values are stored as raw doubles without rounding.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class BinaryMetricsStore {
+    
+    public static final String BINARY_FILENAME_EXT = ".jxb";
+    
+    private static final int MAGIC = 0x4A584D42;
+    private static final int VERSION = 2;
+    
+    private BinaryMetricsStore() {
+    }
+    
+    public static void write(MetricsStore mstore, Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            Writer writer = new Writer(new DataOutputStream(out));
+            writer.write(mstore);
+        }
+    }
+    
+    public static MetricsStore read(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            Reader reader = new Reader(new DataInputStream(in), Files.size(path));
+            return reader.read();
+        }
+    }
+    
+    private static class Writer implements MetricsTreeCodec.Output {
+        
+        private DataOutputStream out;
+        private Map<String, Integer> ids = new HashMap<>();
+        private List<String> strings = new ArrayList<>();
+        
+        private Writer(DataOutputStream out) {
+            this.out = out;
+        }
+        
+        private void write(MetricsStore mstore) throws IOException {
+            MetricsTreeCodec.write(mstore, new StringCollector());
+            
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeInt(strings.size());
+            for (String str : strings) {
+                byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+                writeInt(bytes.length);
+                out.write(bytes);
+            }
+            
+            MetricsTreeCodec.write(mstore, this);
+            out.flush();
+        }
+        
+        @Override
+        public void writeInt(int value) throws IOException {
+            while ((value & ~0x7f) != 0) {
+                out.writeByte((value & 0x7f) | 0x80);
+                value = value >>> 7;
+            }
+            out.writeByte(value);
+        }
+        
+        @Override
+        public void writeString(String str) throws IOException {
+            writeInt(str != null ? ids.get(str) + 1 : 0);
+        }
+        
+        @Override
+        public void writeMetrics(Metrics metrics) throws IOException {
+            if (metrics instanceof CommonMetrics) {
+                CommonMetrics codeInfo = (CommonMetrics)metrics;
+                writeSignedInt(codeInfo.getStartPosition());
+                writeSignedInt(codeInfo.getEndPosition());
+                writeSignedInt(codeInfo.getUpperLineNumber());
+                writeSignedInt(codeInfo.getBottomLineNumber());
+            }
+            
+            MetricValues values = metrics.metricValues;
+            writeInt(values.size());
+            for (int ordinal = values.nextOrdinal(0); ordinal >= 0; ordinal = values.nextOrdinal(ordinal + 1)) {
+                writeString(MetricIndex.getInstance().getName(ordinal));
+                out.writeDouble(values.get(ordinal, 0.0));
+            }
+        }
+        
+        private void writeSignedInt(int value) throws IOException {
+            writeInt((value << 1) ^ (value >> 31));
+        }
+        
+        private void addString(String str) {
+            if (str != null && !ids.containsKey(str)) {
+                ids.put(str, strings.size());
+                strings.add(str);
+            }
+        }
+        
+        /**
+         * Collects the strings to be written into the string table.
+         */
+        private class StringCollector implements MetricsTreeCodec.Output {
+            
+            @Override
+            public void writeInt(int value) {
+            }
+            
+            @Override
+            public void writeString(String str) {
+                addString(str);
+            }
+            
+            @Override
+            public void writeMetrics(Metrics metrics) {
+                MetricValues values = metrics.metricValues;
+                for (int ordinal = values.nextOrdinal(0); ordinal >= 0; ordinal = values.nextOrdinal(ordinal + 1)) {
+                    addString(MetricIndex.getInstance().getName(ordinal));
+                }
+            }
+        }
+    }
+    
+    private static class Reader implements MetricsTreeCodec.Input {
+        
+        private DataInputStream in;
+        private long length;
+        private String[] strings;
+        private int[] ordinals;
+        
+        private Reader(DataInputStream in, long length) {
+            this.in = in;
+            this.length = length;
+        }
+        
+        private MetricsStore read() throws IOException {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a binary metrics file");
+            }
+            if (in.readInt() != VERSION) {
+                throw new IOException("Unsupported version of a binary metrics file");
+            }
+            
+            strings = new String[readCount()];
+            byte[] bytes = new byte[256];
+            for (int index = 0; index < strings.length; index++) {
+                int length = readCount();
+                if (length > bytes.length) {
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                }
+                in.readFully(bytes, 0, length);
+                strings[index] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            ordinals = new int[strings.length];
+            Arrays.fill(ordinals, -1);
+            
+            return MetricsTreeCodec.read(this);
+        }
+        
+        @Override
+        public int readInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift = shift + 7) {
+                int b = in.readByte();
+                value = value | ((b & 0x7f) << shift);
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable-length integer");
+        }
+        
+        /**
+         * Reads a count, which cannot exceed the length of the file since each counted item takes at least a byte.
+         * @return the count
+         */
+        private int readCount() throws IOException {
+            int count = readInt();
+            MetricsTreeCodec.check(count >= 0 && count <= length);
+            return count;
+        }
+        
+        @Override
+        public String readString() throws IOException {
+            int id = readInt();
+            MetricsTreeCodec.check(id >= 0 && id <= strings.length);
+            return id > 0 ? strings[id - 1] : null;
+        }
+        
+        @Override
+        public void readMetrics(Metrics metrics) throws IOException {
+            if (metrics instanceof CommonMetrics) {
+                int start = readSignedInt();
+                int end = readSignedInt();
+                int upper = readSignedInt();
+                int bottom = readSignedInt();
+                if (start >= 0 && upper >= 0) {
+                    metrics.setCodeProperties(start, end, upper, bottom);
+                }
+            }
+            
+            int size = readCount();
+            for (int i = 0; i < size; i++) {
+                int id = readInt() - 1;
+                MetricsTreeCodec.check(id >= 0 && id < strings.length && strings[id] != null);
+                if (ordinals[id] < 0) {
+                    ordinals[id] = MetricIndex.getInstance().getOrdinal(strings[id]);
+                }
+                metrics.metricValues.put(ordinals[id], in.readDouble());
+            }
+        }
+        
+        private int readSignedInt() throws IOException {
+            int value = readInt();
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
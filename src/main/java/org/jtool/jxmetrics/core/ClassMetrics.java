@@ -6,23 +6,8 @@
 package org.jtool.jxmetrics.core;
 
 import org.jtool.jxmetrics.measurement.LOC;
-import org.jtool.jxmetrics.measurement.Metric;
 import org.jtool.jxmetrics.measurement.NOST;
-import org.jtool.jxmetrics.measurement.CBO;
-import org.jtool.jxmetrics.measurement.DIT;
-import org.jtool.jxmetrics.measurement.NOC;
-import org.jtool.jxmetrics.measurement.RFC;
-import org.jtool.jxmetrics.measurement.WMC;
-import org.jtool.jxmetrics.measurement.LCOM;
 import org.jtool.jxmetrics.measurement.ATFD;
-import org.jtool.jxmetrics.measurement.TCC;
-import org.jtool.jxmetrics.measurement.NOACL;
-import org.jtool.jxmetrics.measurement.NOECL;
-import org.jtool.jxmetrics.measurement.NOMD;
-import org.jtool.jxmetrics.measurement.NOFD;
-import org.jtool.jxmetrics.measurement.NOPMD;
-import org.jtool.jxmetrics.measurement.NOPFD;
-import org.jtool.jxmetrics.measurement.NOMDFD;
 import org.jtool.jxmetrics.measurement.NOAMD;
 import org.jtool.jxmetrics.measurement.NOEMD;
 import org.jtool.jxmetrics.measurement.NOEFD;
@@ -39,8 +24,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.io.File;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 /**
  * Stores metric information on a class.
@@ -54,13 +37,17 @@ public class ClassMetrics extends CommonMetrics {
     protected ClassMetrics.Kind kind;
     protected PackageMetrics packageMetrics;
     protected String superClassName;
-    protected List<String> superInterfaceNames = new ArrayList<>();
+    protected SymbolList superInterfaces = new SymbolList();
     protected String path;
     
     protected List<MethodMetrics> methods = new ArrayList<>();
     protected List<FieldMetrics> fields = new ArrayList<>();
-    protected List<String> afferentClassNames = new ArrayList<>();
-    protected List<String> efferentClassNames = new ArrayList<>();
+    protected SymbolList afferentClasses = new SymbolList();
+    protected SymbolList efferentClasses = new SymbolList();
+    
+    private MetricAggregate aggregate;
+    private volatile LazyMembers lazyMembers;
+    private boolean skippedMembers = false;
     
     public enum Kind {
         J_CLASS, J_INTERFACE, J_ENUM, J_LAMBDA, UNKNOWN;
@@ -76,7 +63,9 @@ public class ClassMetrics extends CommonMetrics {
         kind = getKind(jclass);
         packageMetrics = mpackage;
         superClassName = jclass.getSuperClassName();
-        superInterfaceNames.addAll(jclass.getSuperInterfaceNames());
+        for (String name : jclass.getSuperInterfaceNames()) {
+            addSuperInterface(name);
+        }
         path = jclass.getFile().getRelativePath();
         setCodeProperties(jclass);
         
@@ -98,10 +87,12 @@ public class ClassMetrics extends CommonMetrics {
         
         MethodMetrics.sort(methods);
         FieldMetrics.sort(fields);
-        sortNames(afferentClassNames);
-        sortNames(efferentClassNames);
+        superInterfaces.normalize();
+        afferentClasses.normalize();
+        efferentClasses.normalize();
         collectMetrics(jproject, jclass);
         collectMetricsMax();
+        aggregate = null;
     }
     
     private ClassMetrics.Kind getKind(JavaClass jclass) {
@@ -161,6 +152,14 @@ public class ClassMetrics extends CommonMetrics {
         return packageMetrics.getName();
     }
     
+    @Override
+    public MetricSelection getMetricSelection() {
+        if (packageMetrics != null) {
+            return packageMetrics.getMetricSelection();
+        }
+        return MetricSelection.ALL;
+    }
+    
     public void setSuperClass(String name) {
         superClassName = name;
     }
@@ -169,12 +168,16 @@ public class ClassMetrics extends CommonMetrics {
         return superClassName;
     }
     
+    public SymbolTable getSymbolTable() {
+        return packageMetrics.getSymbolTable();
+    }
+    
     public void addSuperInterface(String name) {
-        superInterfaceNames.add(name);
+        superInterfaces.add(getSymbolTable().getId(name));
     }
     
     public List<String> getSuperInterfaceNames() {
-        return superInterfaceNames;
+        return superInterfaces.getNames(getSymbolTable());
     }
     
     public void addMethod(MethodMetrics mmethod) {
@@ -183,11 +186,43 @@ public class ClassMetrics extends CommonMetrics {
         }
     }
     
+    void setLazyMembers(LazyMembers lazyMembers) {
+        this.lazyMembers = lazyMembers;
+        skippedMembers = true;
+    }
+    
+    /**
+     * Tests if the members of this class were skipped by a lazy import, whose metric values are
+     * summarized in its package instead.
+     * @return {@code true} if the members were skipped, otherwise {@code false}
+     */
+    boolean hasSkippedMembers() {
+        return skippedMembers;
+    }
+    
+    private void loadMembers() {
+        if (lazyMembers == null) {
+            return;
+        }
+        synchronized (this) {
+            if (lazyMembers != null) {
+                lazyMembers.load(this);
+                MethodMetrics.sort(methods);
+                FieldMetrics.sort(fields);
+                lazyMembers = null;
+            }
+        }
+    }
+    
     public List<MethodMetrics> getMethods() {
+        loadMembers();
         return methods;
     }
     
     public void sortMethods() {
+        if (isFrozen()) {
+            return;
+        }
         MethodMetrics.sort(methods);
     }
     
@@ -198,31 +233,31 @@ public class ClassMetrics extends CommonMetrics {
     }
     
     public List<FieldMetrics> getFields() {
+        loadMembers();
         return fields;
     }
     
     public void sortFields() {
+        if (isFrozen()) {
+            return;
+        }
         FieldMetrics.sort(fields);
     }
     
     public void addAfferentClass(String name) {
-        if (!afferentClassNames.contains(name)) {
-            afferentClassNames.add(name);
-        }
+        afferentClasses.add(getSymbolTable().getId(name));
     }
     
     public List<String> getAfferentClasses() {
-        return afferentClassNames;
+        return afferentClasses.getNames(getSymbolTable());
     }
     
     public void addEfferentClass(String name) {
-        if (!efferentClassNames.contains(name)) {
-            efferentClassNames.add(name);
-        }
+        efferentClasses.add(getSymbolTable().getId(name));
     }
     
     public List<String> getEfferentClasses() {
-        return efferentClassNames;
+        return efferentClasses.getNames(getSymbolTable());
     }
     
     public String getSourceCode() {
@@ -230,30 +265,7 @@ public class ClassMetrics extends CommonMetrics {
     }
     
     protected void collectMetrics(JavaProject jproject, JavaClass jclass) {
-        putMetricValue(LOC.Name, sum(LOC.Name));
-        putMetricValue(NOST.Name, sum(NOST.Name));
-        
-        putMetricValue(NOMD.Name, new NOMD().calculate(jclass));
-        putMetricValue(NOFD.Name, new NOFD().calculate(jclass));
-        putMetricValue(NOMDFD.Name, new NOMDFD().calculate(jclass));
-        putMetricValue(NOPMD.Name, new NOPMD().calculate(jclass));
-        putMetricValue(NOPFD.Name, new NOPFD().calculate(jclass));
-        
-        putMetricValue(NOACL.Name, new NOACL().calculate(jclass));
-        putMetricValue(NOECL.Name, new NOECL().calculate(jclass));
-        putSumMetricValue(NOAMD.Name);
-        putSumMetricValue(NOEMD.Name);
-        putSumMetricValue(NOEFD.Name);
-        
-        putMetricValue(CBO.Name, new CBO().calculate(jclass));
-        putMetricValue(DIT.Name, new DIT().calculate(jclass));
-        putMetricValue(NOC.Name, new NOC().calculate(jclass));
-        putMetricValue(RFC.Name, new RFC().calculate(jclass));
-        putMetricValue(WMC.Name, new WMC().calculate(jclass));
-        putMetricValue(LCOM.Name, new LCOM().calculate(jclass));
-        
-        putSumMetricValue(ATFD.Name);
-        putMetricValue(TCC.Name, new TCC().calculate(jproject, jclass));
+        calculateMetrics(MetricCalculator.Level.CLASS, jproject, jclass);
     }
     
     protected void collectMetricsMax() {
@@ -272,68 +284,73 @@ public class ClassMetrics extends CommonMetrics {
         putMaxMetricValue(ATFD.Name);
     }
     
-    private void putSumMetricValue(String sort) {
-        metricValues.put(sort, sum(sort));
+    private void putMaxMetricValue(String sort) {
+        if (isSelected(sort)) {
+            metricValues.putMax(sort, max(sort));
+        }
     }
     
-    private void putMaxMetricValue(String sort) {
-        metricValues.put(Metric.MAX + sort, max(sort));
+    private MetricAggregate getAggregate() {
+        if (aggregate == null) {
+            aggregate = new MetricAggregate();
+            for (MethodMetrics mmethod : methods) {
+                aggregate.add(mmethod.metricValues);
+            }
+            for (FieldMetrics mfield : fields) {
+                aggregate.add(mfield.metricValues);
+            }
+        }
+        return aggregate;
     }
     
     protected double sum(String sort) {
-        double value = 0;
-        for (MethodMetrics mmethod : methods) {
-            value = value + mmethod.getMetricValue(sort);
-        }
-        for (FieldMetrics mfield : fields) {
-            value = value + mfield.getMetricValue(sort);
-        }
-        return new BigDecimal(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+        return getAggregate().getSum(sort);
     }
     
-    protected Double max(String sort) {
-        double value = 0;
-        for (MethodMetrics mmethod : methods) {
-            value = Math.max(value, mmethod.getMetricValue(sort));
-        }
-        for (FieldMetrics mfield : fields) {
-            value = Math.max(value, mfield.getMetricValue(sort));
-        }
-        return new BigDecimal(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    protected double max(String sort) {
+        return getAggregate().getMax(sort);
     }
     
-    protected Double maxForMethods(String sort) {
+    protected double maxForMethods(String sort) {
         double value = 0;
         for (MethodMetrics mmethod : methods) {
             value = Math.max(value, mmethod.getMetricValue(sort));
         }
-        return new BigDecimal(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+        return value;
     }
     
     public static List<String> getAccessedFields(JavaProject jproject, JavaClass jclass, JavaMethod jmethod) {
-        List<String> fieldNames = new ArrayList<String>();
-        for (JavaField jf : jmethod.getAccessedFieldsInProject()) {
-            if (jclass.equals(jf.getDeclaringClass())) {
-                fieldNames.add(jf.getName());
-            }
-        }
-        
-        for (JavaMethod jm : jmethod.getCalledMethodsInProject()) {
-            if (jclass.equals(jm.getDeclaringClass())) {
-                JavaField jf = MethodMetrics.getFieldbyAccessor(jproject, jm);
-                if (jf != null) {
-                    fieldNames.add(jf.getName());
-                }
-            }
-        }
-        return fieldNames;
+        return FieldAccessIndex.getInstance(jproject).getAccessedFields(jclass, jmethod);
     }
     
     public void collectMetricsAfterXMLImport() {
         MethodMetrics.sort(methods);
         FieldMetrics.sort(fields);
-        sortNames(afferentClassNames);
-        sortNames(efferentClassNames);
+        superInterfaces.normalize();
+        afferentClasses.normalize();
+        efferentClasses.normalize();
+    }
+    
+    @Override
+    void freeze() {
+        if (isFrozen()) {
+            return;
+        }
+        loadMembers();
+        MethodMetrics.sort(methods);
+        FieldMetrics.sort(fields);
+        methods = toFrozenList(methods);
+        fields = toFrozenList(fields);
+        superInterfaces.freeze(getSymbolTable());
+        afferentClasses.freeze(getSymbolTable());
+        efferentClasses.freeze(getSymbolTable());
+        for (MethodMetrics mmethod : methods) {
+            mmethod.freeze();
+        }
+        for (FieldMetrics mfield : fields) {
+            mfield.freeze();
+        }
+        super.freeze();
     }
     
     public static void sort(List<ClassMetrics> classes) {
@@ -0,0 +1,372 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.jxmetrics.core.MetricCalculator.Level;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.EnumMap;
+
+/**
+ * Stores metric values in a columnar file and answers threshold queries on it.
+ * The values of a metric at each level are divided into chunks of rows, and the directory at the end of the file
+ * records the minimum and maximum values of each chunk. A query reads only the chunks whose statistics
+ * can satisfy its predicate, and the qualified names of elements are read from per-level dictionaries.
+ * An opened file may be queried from multiple threads.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class ColumnarMetricsFile implements Closeable {
+    
+    public static final String COLUMNAR_FILENAME_EXT = ".jxc";
+    public static final int CHUNK_ROWS = 4096;
+    
+    private static final int MAGIC = 0x4A584D43;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+    
+    private FileChannel channel;
+    private String name;
+    private String target;
+    private String time;
+    private Map<Level, LevelInfo> levels = new EnumMap<>(Level.class);
+    private int decodedChunks = 0;
+    
+    private ColumnarMetricsFile(FileChannel channel) {
+        this.channel = channel;
+    }
+    
+    public static void write(MetricsStore mstore, Path path) throws IOException {
+        write(new ColumnarMetricsStore(mstore), path);
+    }
+    
+    public static void write(ColumnarMetricsStore cstore, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            long offset = HEADER_SIZE;
+            
+            Map<Level, LevelInfo> infos = new EnumMap<>(Level.class);
+            for (Level level : Level.values()) {
+                LevelInfo info = new LevelInfo();
+                info.rows = cstore.getRowCount(level);
+                infos.put(level, info);
+                
+                info.namesOffset = offset;
+                byte[][] names = new byte[info.rows][];
+                long length = 0;
+                for (int row = 0; row < info.rows; row++) {
+                    names[row] = cstore.getQualifiedName(level, row).getBytes(StandardCharsets.UTF_8);
+                    out.writeLong(length);
+                    length = length + names[row].length;
+                }
+                out.writeLong(length);
+                for (int row = 0; row < info.rows; row++) {
+                    out.write(names[row]);
+                }
+                offset = offset + (long)(info.rows + 1) * Long.BYTES + length;
+                
+                info.parentsOffset = offset;
+                for (int row = 0; row < info.rows; row++) {
+                    out.writeInt(cstore.getParent(level, row));
+                }
+                offset = offset + (long)info.rows * Integer.BYTES;
+                
+                for (int ordinal = 0; ordinal < cstore.getColumnCount(level); ordinal++) {
+                    double[] column = cstore.getColumn(level, ordinal);
+                    if (column == null) {
+                        continue;
+                    }
+                    
+                    Chunk[] chunks = new Chunk[(info.rows + CHUNK_ROWS - 1) / CHUNK_ROWS];
+                    for (int index = 0; index < chunks.length; index++) {
+                        Chunk chunk = new Chunk();
+                        chunk.offset = offset;
+                        chunk.rowStart = index * CHUNK_ROWS;
+                        chunk.rowCount = Math.min(CHUNK_ROWS, info.rows - chunk.rowStart);
+                        long[] presence = new long[(chunk.rowCount + 63) >>> 6];
+                        for (int i = 0; i < chunk.rowCount; i++) {
+                            if (cstore.hasMetricValue(level, chunk.rowStart + i, ordinal)) {
+                                double value = column[chunk.rowStart + i];
+                                presence[i >>> 6] |= 1L << i;
+                                chunk.min = chunk.presentCount == 0 ? value : Math.min(chunk.min, value);
+                                chunk.max = chunk.presentCount == 0 ? value : Math.max(chunk.max, value);
+                                chunk.presentCount++;
+                            }
+                        }
+                        for (long bits : presence) {
+                            out.writeLong(bits);
+                        }
+                        for (int i = 0; i < chunk.rowCount; i++) {
+                            out.writeDouble(column[chunk.rowStart + i]);
+                        }
+                        offset = offset + (long)presence.length * Long.BYTES + (long)chunk.rowCount * Double.BYTES;
+                        chunks[index] = chunk;
+                    }
+                    info.columns.put(MetricIndex.getInstance().getName(ordinal), chunks);
+                }
+            }
+            
+            long directoryOffset = offset;
+            out.writeUTF(cstore.getName());
+            out.writeUTF(cstore.getTarget());
+            out.writeUTF(cstore.getTimeAsString());
+            for (Level level : Level.values()) {
+                LevelInfo info = infos.get(level);
+                out.writeInt(info.rows);
+                out.writeLong(info.namesOffset);
+                out.writeLong(info.parentsOffset);
+                out.writeInt(info.columns.size());
+                for (Map.Entry<String, Chunk[]> entry : info.columns.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    for (Chunk chunk : entry.getValue()) {
+                        out.writeLong(chunk.offset);
+                        out.writeInt(chunk.rowStart);
+                        out.writeInt(chunk.rowCount);
+                        out.writeInt(chunk.presentCount);
+                        out.writeDouble(chunk.min);
+                        out.writeDouble(chunk.max);
+                    }
+                }
+            }
+            out.writeLong(directoryOffset);
+            out.flush();
+        }
+    }
+    
+    public static ColumnarMetricsFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ColumnarMetricsFile file = new ColumnarMetricsFile(channel);
+            file.readDirectory();
+            return file;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    private void readDirectory() throws IOException {
+        ByteBuffer header = read(0, HEADER_SIZE);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a columnar metrics file");
+        }
+        if (header.getInt() != VERSION) {
+            throw new IOException("Unsupported version of a columnar metrics file");
+        }
+        
+        long size = channel.size();
+        long directoryOffset = read(size - Long.BYTES, Long.BYTES).getLong();
+        ByteBuffer buf = read(directoryOffset, (int)(size - Long.BYTES - directoryOffset));
+        DataInputStream dir = new DataInputStream(new ByteArrayInputStream(buf.array()));
+        name = dir.readUTF();
+        target = dir.readUTF();
+        time = dir.readUTF();
+        for (Level level : Level.values()) {
+            LevelInfo info = new LevelInfo();
+            info.rows = dir.readInt();
+            info.namesOffset = dir.readLong();
+            info.parentsOffset = dir.readLong();
+            int columnSize = dir.readInt();
+            for (int i = 0; i < columnSize; i++) {
+                String sort = dir.readUTF();
+                Chunk[] chunks = new Chunk[dir.readInt()];
+                for (int index = 0; index < chunks.length; index++) {
+                    Chunk chunk = new Chunk();
+                    chunk.offset = dir.readLong();
+                    chunk.rowStart = dir.readInt();
+                    chunk.rowCount = dir.readInt();
+                    chunk.presentCount = dir.readInt();
+                    chunk.min = dir.readDouble();
+                    chunk.max = dir.readDouble();
+                    chunks[index] = chunk;
+                }
+                info.columns.put(sort, chunks);
+            }
+            levels.put(level, info);
+        }
+    }
+    
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new IOException("Unexpected end of a columnar metrics file");
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getTarget() {
+        return target;
+    }
+    
+    public String getTime() {
+        return time;
+    }
+    
+    public int getRowCount(Level level) {
+        return levels.get(level).rows;
+    }
+    
+    public String getQualifiedName(Level level, int row) throws IOException {
+        LevelInfo info = levels.get(level);
+        long[] offsets = getNameOffsets(info);
+        long start = offsets[row];
+        int length = (int)(offsets[row + 1] - start);
+        ByteBuffer buf = read(info.namesOffset + (long)(info.rows + 1) * Long.BYTES + start, length);
+        return new String(buf.array(), 0, length, StandardCharsets.UTF_8);
+    }
+    
+    private synchronized long[] getNameOffsets(LevelInfo info) throws IOException {
+        if (info.nameOffsets == null) {
+            ByteBuffer buf = read(info.namesOffset, (info.rows + 1) * Long.BYTES);
+            long[] offsets = new long[info.rows + 1];
+            buf.asLongBuffer().get(offsets);
+            info.nameOffsets = offsets;
+        }
+        return info.nameOffsets;
+    }
+    
+    public int getParent(Level level, int row) throws IOException {
+        return read(levels.get(level).parentsOffset + (long)row * Integer.BYTES, Integer.BYTES).getInt();
+    }
+    
+    public boolean hasColumn(Level level, String sort) {
+        return levels.get(level).columns.containsKey(sort);
+    }
+    
+    /**
+     * Finds the rows whose values of a metric are within a range.
+     * Chunks whose minimum and maximum values are out of the range are skipped without being read.
+     * @param level the level of elements
+     * @param sort the name of the metric
+     * @param lower the lower bound of the range, inclusive
+     * @param upper the upper bound of the range, inclusive
+     * @return the indices of the found rows in ascending order
+     */
+    public int[] findRows(Level level, String sort, double lower, double upper) throws IOException {
+        Chunk[] chunks = levels.get(level).columns.get(sort);
+        if (chunks == null) {
+            return new int[0];
+        }
+        
+        int[] rows = new int[16];
+        int count = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.presentCount == 0 || chunk.max < lower || chunk.min > upper) {
+                continue;
+            }
+            
+            ChunkData data = readChunk(chunk);
+            for (int i = 0; i < chunk.rowCount; i++) {
+                if (data.isPresent(i) && data.values[i] >= lower && data.values[i] <= upper) {
+                    if (count == rows.length) {
+                        rows = Arrays.copyOf(rows, count * 2);
+                    }
+                    rows[count] = chunk.rowStart + i;
+                    count++;
+                }
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+    
+    public int[] findRowsGreaterThan(Level level, String sort, double threshold) throws IOException {
+        return findRows(level, sort, Math.nextUp(threshold), Double.POSITIVE_INFINITY);
+    }
+    
+    public int[] findRowsLessThan(Level level, String sort, double threshold) throws IOException {
+        return findRows(level, sort, Double.NEGATIVE_INFINITY, Math.nextDown(threshold));
+    }
+    
+    public double getMetricValue(Level level, int row, String sort) throws IOException {
+        Chunk[] chunks = levels.get(level).columns.get(sort);
+        if (chunks == null || row < 0 || row >= getRowCount(level)) {
+            return 0.0;
+        }
+        Chunk chunk = chunks[row / CHUNK_ROWS];
+        ChunkData data = readChunk(chunk);
+        int index = row - chunk.rowStart;
+        return data.isPresent(index) ? data.values[index] : 0.0;
+    }
+    
+    /**
+     * Returns the number of chunks that have been read from this file.
+     * @return the number of read chunks
+     */
+    public synchronized int getDecodedChunkCount() {
+        return decodedChunks;
+    }
+    
+    private ChunkData readChunk(Chunk chunk) throws IOException {
+        int words = (chunk.rowCount + 63) >>> 6;
+        ByteBuffer buf = read(chunk.offset, words * Long.BYTES + chunk.rowCount * Double.BYTES);
+        ChunkData data = new ChunkData();
+        data.presence = new long[words];
+        buf.asLongBuffer().get(data.presence);
+        buf.position(words * Long.BYTES);
+        data.values = new double[chunk.rowCount];
+        buf.asDoubleBuffer().get(data.values);
+        synchronized (this) {
+            decodedChunks++;
+        }
+        return data;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    private static class LevelInfo {
+        int rows;
+        long namesOffset;
+        long parentsOffset;
+        long[] nameOffsets;
+        Map<String, Chunk[]> columns = new HashMap<>();
+    }
+    
+    private static class Chunk {
+        long offset;
+        int rowStart;
+        int rowCount;
+        int presentCount;
+        double min;
+        double max;
+    }
+    
+    private static class ChunkData {
+        long[] presence;
+        double[] values;
+        
+        boolean isPresent(int index) {
+            return (presence[index >>> 6] & (1L << index)) != 0;
+        }
+    }
+}
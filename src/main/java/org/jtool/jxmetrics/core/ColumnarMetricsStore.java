@@ -0,0 +1,520 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.jxmetrics.core.MetricCalculator.Level;
+import org.jtool.jxplatform.builder.TimeInfo;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.time.ZonedDateTime;
+
+/**
+ * Stores metric values of all projects column by column.
+ * Each level of elements has a table holding one primitive column per metric and a column
+ * of the row indices of the parent elements. Rows are laid out in the order of the object graph,
+ * so the children of an element occupy consecutive rows.
+ * The attributes of the elements are copied into the tables, and an element is read through a view
+ * of its row, so the columnar store keeps no reference to the converted store and leaves it unchanged.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class ColumnarMetricsStore {
+    
+    private String name;
+    private String target;
+    private ZonedDateTime time;
+    
+    private Map<Level, Table> tables = new EnumMap<>(Level.class);
+    
+    public ColumnarMetricsStore(MetricsStore mstore) {
+        this.name = mstore.getName();
+        this.target = mstore.getTarget();
+        this.time = mstore.getTime();
+        
+        List<ProjectMetrics> mprojects = mstore.getProjectMetrics();
+        List<PackageMetrics> mpackages = new ArrayList<>();
+        List<ClassMetrics> mclasses = new ArrayList<>();
+        List<MethodMetrics> mmethods = new ArrayList<>();
+        List<FieldMetrics> mfields = new ArrayList<>();
+        
+        Table projectTable = new Table(Level.PROJECT, mprojects.size());
+        for (ProjectMetrics mproject : mprojects) {
+            projectTable.add(mproject, -1);
+        }
+        tables.put(Level.PROJECT, projectTable);
+        
+        for (ProjectMetrics mproject : mprojects) {
+            mpackages.addAll(mproject.getPackages());
+        }
+        Table packageTable = new Table(Level.PACKAGE, mpackages.size());
+        for (int index = 0; index < mprojects.size(); index++) {
+            for (PackageMetrics mpackage : mprojects.get(index).getPackages()) {
+                packageTable.add(mpackage, index);
+            }
+        }
+        tables.put(Level.PACKAGE, packageTable);
+        
+        for (PackageMetrics mpackage : mpackages) {
+            mclasses.addAll(mpackage.getClasses());
+        }
+        Table classTable = new Table(Level.CLASS, mclasses.size());
+        for (int index = 0; index < mpackages.size(); index++) {
+            for (ClassMetrics mclass : mpackages.get(index).getClasses()) {
+                classTable.add(mclass, index);
+            }
+        }
+        tables.put(Level.CLASS, classTable);
+        
+        for (ClassMetrics mclass : mclasses) {
+            mmethods.addAll(mclass.getMethods());
+            mfields.addAll(mclass.getFields());
+        }
+        Table methodTable = new Table(Level.METHOD, mmethods.size());
+        Table fieldTable = new Table(Level.FIELD, mfields.size());
+        for (int index = 0; index < mclasses.size(); index++) {
+            for (MethodMetrics mmethod : mclasses.get(index).getMethods()) {
+                methodTable.add(mmethod, index);
+            }
+            for (FieldMetrics mfield : mclasses.get(index).getFields()) {
+                fieldTable.add(mfield, index);
+            }
+        }
+        tables.put(Level.METHOD, methodTable);
+        tables.put(Level.FIELD, fieldTable);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getTarget() {
+        return target;
+    }
+    
+    public ZonedDateTime getTime() {
+        return time;
+    }
+    
+    public String getTimeAsString() {
+        return TimeInfo.getTimeAsISOString(time);
+    }
+    
+    public int getRowCount(Level level) {
+        return tables.get(level).size;
+    }
+    
+    public String getQualifiedName(Level level, int row) {
+        return tables.get(level).names[row];
+    }
+    
+    /**
+     * Returns the element stored in a row.
+     * @param level the level of the element
+     * @param row the index of the row
+     * @return the view of the element, which reads its attributes and metric values from the row
+     */
+    public Element getElement(Level level, int row) {
+        return new Element(tables.get(level), row);
+    }
+    
+    public List<Element> getElements(Level level) {
+        Table table = tables.get(level);
+        List<Element> elements = new ArrayList<>(table.size);
+        for (int row = 0; row < table.size; row++) {
+            elements.add(new Element(table, row));
+        }
+        return elements;
+    }
+    
+    public int getParent(Level level, int row) {
+        return tables.get(level).parents[row];
+    }
+    
+    public int getFirstChild(Level childLevel, int row) {
+        return lowerBound(tables.get(childLevel).parents, row);
+    }
+    
+    /**
+     * Returns the end of the rows of the children of an element.
+     * @param childLevel the level of the children
+     * @param row the index of the row of the element
+     * @return the index next to the row of the last child, which equals the first child if there is no child
+     */
+    public int getChildEnd(Level childLevel, int row) {
+        return lowerBound(tables.get(childLevel).parents, row + 1);
+    }
+    
+    private int lowerBound(int[] parents, int row) {
+        int low = 0;
+        int high = parents.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (parents[mid] < row) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Returns the column of a metric at a level.
+     * The returned array is shared with this store and must not be modified.
+     * @param level the level of elements
+     * @param sort the name of the metric
+     * @return the values of the metric indexed by rows, where missing values are zero
+     */
+    public double[] getColumn(Level level, String sort) {
+        Table table = tables.get(level);
+        int ordinal = MetricIndex.getInstance().findOrdinal(sort);
+        if (ordinal >= 0 && ordinal < table.columns.length && table.columns[ordinal] != null) {
+            return table.columns[ordinal];
+        }
+        return new double[table.size];
+    }
+    
+    int getColumnCount(Level level) {
+        return tables.get(level).columns.length;
+    }
+    
+    double[] getColumn(Level level, int ordinal) {
+        Table table = tables.get(level);
+        if (ordinal < table.columns.length) {
+            return table.columns[ordinal];
+        }
+        return null;
+    }
+    
+    boolean hasMetricValue(Level level, int row, int ordinal) {
+        return tables.get(level).isPresent(ordinal, row);
+    }
+    
+    public boolean hasMetricValue(Level level, int row, String sort) {
+        Table table = tables.get(level);
+        int ordinal = MetricIndex.getInstance().findOrdinal(sort);
+        return table.isPresent(ordinal, row);
+    }
+    
+    public double getMetricValue(Level level, int row, String sort) {
+        Table table = tables.get(level);
+        int ordinal = MetricIndex.getInstance().findOrdinal(sort);
+        if (table.isPresent(ordinal, row)) {
+            return table.columns[ordinal][row];
+        }
+        return 0.0;
+    }
+    
+    public double sum(Level level, String sort) {
+        double value = 0;
+        for (double v : getColumn(level, sort)) {
+            value = value + v;
+        }
+        return value;
+    }
+    
+    public double max(Level level, String sort) {
+        double value = 0;
+        for (double v : getColumn(level, sort)) {
+            value = Math.max(value, v);
+        }
+        return value;
+    }
+    
+    private static Level getParentLevel(Level level) {
+        switch (level) {
+            case FIELD:
+            case METHOD:
+                return Level.CLASS;
+            case CLASS:
+                return Level.PACKAGE;
+            case PACKAGE:
+                return Level.PROJECT;
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * A view of an element stored in a row.
+     */
+    public class Element {
+        
+        private Table table;
+        private int row;
+        
+        private Element(Table table, int row) {
+            this.table = table;
+            this.row = row;
+        }
+        
+        public Level getLevel() {
+            return table.level;
+        }
+        
+        public int getRow() {
+            return row;
+        }
+        
+        public String getQualifiedName() {
+            return table.names[row];
+        }
+        
+        public String getName() {
+            return table.simpleNames[row];
+        }
+        
+        public String getPath() {
+            return table.paths[row];
+        }
+        
+        public String getType() {
+            return table.types[row];
+        }
+        
+        /**
+         * Returns the kind of this element.
+         * @return the name of the kind of a class, method, or field, or {@code null} for a project or a package
+         */
+        public String getKind() {
+            return table.kinds[row];
+        }
+        
+        public int getModifiers() {
+            return table.modifiers[row];
+        }
+        
+        public int getStartPosition() {
+            return table.ranges[row * 4];
+        }
+        
+        public int getEndPosition() {
+            return table.ranges[row * 4 + 1];
+        }
+        
+        public int getUpperLineNumber() {
+            return table.ranges[row * 4 + 2];
+        }
+        
+        public int getBottomLineNumber() {
+            return table.ranges[row * 4 + 3];
+        }
+        
+        public String getSuperClassName() {
+            return table.superClassNames[row];
+        }
+        
+        public List<String> getSuperInterfaceNames() {
+            return table.getNames(table.superInterfaces, row);
+        }
+        
+        /**
+         * Returns the names of the elements depending on this element.
+         * @return the names of the afferent packages of a package or the afferent classes of a class
+         */
+        public List<String> getAfferentNames() {
+            return table.getNames(table.afferents, row);
+        }
+        
+        /**
+         * Returns the names of the elements on which this element depends.
+         * @return the names of the efferent packages of a package or the efferent classes of a class
+         */
+        public List<String> getEfferentNames() {
+            return table.getNames(table.efferents, row);
+        }
+        
+        public Element getParent() {
+            int parent = table.parents[row];
+            if (parent < 0) {
+                return null;
+            }
+            return new Element(tables.get(getParentLevel(table.level)), parent);
+        }
+        
+        public List<Element> getChildren(Level childLevel) {
+            List<Element> elements = new ArrayList<>();
+            if (getParentLevel(childLevel) != table.level) {
+                return elements;
+            }
+            Table childTable = tables.get(childLevel);
+            int end = getChildEnd(childLevel, row);
+            for (int child = getFirstChild(childLevel, row); child < end; child++) {
+                elements.add(new Element(childTable, child));
+            }
+            return elements;
+        }
+        
+        public boolean hasMetricValue(String sort) {
+            return table.isPresent(MetricIndex.getInstance().findOrdinal(sort), row);
+        }
+        
+        public double getMetricValue(String sort) {
+            int ordinal = MetricIndex.getInstance().findOrdinal(sort);
+            if (table.isPresent(ordinal, row)) {
+                return table.columns[ordinal][row];
+            }
+            return 0.0;
+        }
+        
+        public double getMetricValueWithException(String sort) throws UnsupportedMetricsException {
+            if (hasMetricValue(sort)) {
+                return getMetricValue(sort);
+            }
+            throw new UnsupportedMetricsException("Cannot obtain the metric value of " + sort);
+        }
+        
+        public Map<String, Double> getMetricValues() {
+            Map<String, Double> values = new LinkedHashMap<>();
+            for (int ordinal = 0; ordinal < table.columns.length; ordinal++) {
+                if (table.isPresent(ordinal, row)) {
+                    values.put(MetricIndex.getInstance().getName(ordinal), table.columns[ordinal][row]);
+                }
+            }
+            return values;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Element) {
+                Element element = (Element)obj;
+                return table == element.table && row == element.row;
+            }
+            return false;
+        }
+        
+        @Override
+        public int hashCode() {
+            return table.level.hashCode() * 31 + row;
+        }
+        
+        @Override
+        public String toString() {
+            return getQualifiedName();
+        }
+    }
+    
+    private static class Table {
+        
+        private Level level;
+        private int size = 0;
+        private String[] names;
+        private int[] parents;
+        private String[] simpleNames;
+        private String[] paths;
+        private String[] types;
+        private String[] kinds;
+        private int[] modifiers;
+        private int[] ranges;
+        private String[] superClassNames;
+        private String[][] superInterfaces;
+        private String[][] afferents;
+        private String[][] efferents;
+        private double[][] columns = new double[0][];
+        private long[][] presence = new long[0][];
+        
+        private Table(Level level, int capacity) {
+            this.level = level;
+            names = new String[capacity];
+            parents = new int[capacity];
+            simpleNames = new String[capacity];
+            paths = new String[capacity];
+            types = new String[capacity];
+            kinds = new String[capacity];
+            modifiers = new int[capacity];
+            ranges = new int[capacity * 4];
+            superClassNames = new String[capacity];
+            superInterfaces = new String[capacity][];
+            afferents = new String[capacity][];
+            efferents = new String[capacity][];
+        }
+        
+        private void add(Metrics metrics, int parent) {
+            int row = size;
+            names[row] = metrics.getQualifiedName();
+            parents[row] = parent;
+            ranges[row * 4] = -1;
+            ranges[row * 4 + 2] = -1;
+            
+            if (metrics instanceof ProjectMetrics) {
+                ProjectMetrics mproject = (ProjectMetrics)metrics;
+                simpleNames[row] = mproject.getName();
+                paths[row] = mproject.getPath();
+            } else if (metrics instanceof PackageMetrics) {
+                PackageMetrics mpackage = (PackageMetrics)metrics;
+                simpleNames[row] = mpackage.getName();
+                afferents[row] = toArray(mpackage.getAfferentPackages());
+                efferents[row] = toArray(mpackage.getEfferentPackages());
+            } else if (metrics instanceof CommonMetrics) {
+                CommonMetrics mcommon = (CommonMetrics)metrics;
+                simpleNames[row] = mcommon.getName();
+                types[row] = mcommon.getType();
+                modifiers[row] = mcommon.getModifiers();
+                ranges[row * 4] = mcommon.getStartPosition();
+                ranges[row * 4 + 1] = mcommon.getEndPosition();
+                ranges[row * 4 + 2] = mcommon.getUpperLineNumber();
+                ranges[row * 4 + 3] = mcommon.getBottomLineNumber();
+                
+                if (metrics instanceof ClassMetrics) {
+                    ClassMetrics mclass = (ClassMetrics)metrics;
+                    kinds[row] = mclass.getKind().toString();
+                    paths[row] = mclass.getPath();
+                    superClassNames[row] = mclass.getSuperClassName();
+                    superInterfaces[row] = toArray(mclass.getSuperInterfaceNames());
+                    afferents[row] = toArray(mclass.getAfferentClasses());
+                    efferents[row] = toArray(mclass.getEfferentClasses());
+                } else if (metrics instanceof MethodMetrics) {
+                    kinds[row] = ((MethodMetrics)metrics).getKind().toString();
+                } else if (metrics instanceof FieldMetrics) {
+                    kinds[row] = ((FieldMetrics)metrics).getKind().toString();
+                }
+            }
+            
+            MetricValues values = metrics.metricValues;
+            for (int ordinal = values.nextOrdinal(0); ordinal >= 0; ordinal = values.nextOrdinal(ordinal + 1)) {
+                put(ordinal, row, values.get(ordinal, 0.0));
+            }
+            size++;
+        }
+        
+        private String[] toArray(List<String> list) {
+            if (list == null || list.isEmpty()) {
+                return null;
+            }
+            return list.toArray(new String[list.size()]);
+        }
+        
+        private List<String> getNames(String[][] lists, int row) {
+            if (lists[row] == null) {
+                return Collections.emptyList();
+            }
+            return Collections.unmodifiableList(Arrays.asList(lists[row]));
+        }
+        
+        private boolean isPresent(int ordinal, int row) {
+            return ordinal >= 0 && ordinal < presence.length && presence[ordinal] != null &&
+                    (presence[ordinal][row >>> 6] & (1L << row)) != 0;
+        }
+        
+        private void put(int ordinal, int row, double value) {
+            if (ordinal >= columns.length) {
+                columns = Arrays.copyOf(columns, ordinal + 1);
+                presence = Arrays.copyOf(presence, ordinal + 1);
+            }
+            if (columns[ordinal] == null) {
+                columns[ordinal] = new double[names.length];
+                presence[ordinal] = new long[(names.length + 63) >>> 6];
+            }
+            columns[ordinal][row] = value;
+            presence[ordinal][row >>> 6] |= 1L << row;
+        }
+    }
+}
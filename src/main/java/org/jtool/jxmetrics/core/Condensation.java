@@ -0,0 +1,235 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.BitSet;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Counts the nodes transitively reachable from each node of a directed graph.
+ * The graph is condensed into strongly-connected components once with Tarjan's algorithm,
+ * and the reachable nodes of the components are merged as bit sets in reverse topological order.
+ * A node is counted as reachable from itself only when it lies on a cycle.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+class Condensation<T> {
+    
+    private Function<T, ? extends Collection<T>> successors;
+    
+    private Map<T, Integer> ids = new HashMap<>();
+    private List<T> nodes = new ArrayList<>();
+    private List<int[]> edges = new ArrayList<>();
+    
+    private int[] component;
+    private int[] reachableCount;
+    
+    Condensation(Collection<T> roots, Function<T, ? extends Collection<T>> successors) {
+        this.successors = successors;
+        for (T node : roots) {
+            getId(node);
+        }
+        condense();
+        this.successors = null;
+    }
+    
+    int getNumberOfReachableNodes(T node) {
+        Integer id = ids.get(node);
+        if (id == null) {
+            return 0;
+        }
+        return reachableCount[component[id]];
+    }
+    
+    private int getId(T node) {
+        Integer id = ids.get(node);
+        if (id == null) {
+            id = nodes.size();
+            ids.put(node, id);
+            nodes.add(node);
+            edges.add(null);
+        }
+        return id;
+    }
+    
+    private int[] getEdges(int id) {
+        int[] succs = edges.get(id);
+        if (succs == null) {
+            List<T> targets = new ArrayList<>(successors.apply(nodes.get(id)));
+            succs = new int[targets.size()];
+            for (int i = 0; i < succs.length; i++) {
+                succs[i] = getId(targets.get(i));
+            }
+            edges.set(id, succs);
+        }
+        return succs;
+    }
+    
+    private void condense() {
+        int capacity = nodes.size();
+        int[] index = new int[capacity];
+        int[] lowlink = new int[capacity];
+        int[] edgePos = new int[capacity];
+        boolean[] onStack = new boolean[capacity];
+        component = new int[capacity];
+        Arrays.fill(index, -1);
+        
+        int[] stack = new int[capacity];
+        int[] callStack = new int[capacity];
+        int[] members = new int[capacity];
+        List<Integer> memberStart = new ArrayList<>();
+        int sp = 0;
+        int next = 0;
+        int numMembers = 0;
+        
+        for (int root = 0; root < nodes.size(); root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            
+            int csp = 0;
+            callStack[csp++] = root;
+            while (csp > 0) {
+                int v = callStack[csp - 1];
+                if (index[v] < 0) {
+                    index[v] = lowlink[v] = next++;
+                    edgePos[v] = 0;
+                    stack[sp++] = v;
+                    onStack[v] = true;
+                }
+                
+                int[] succs = getEdges(v);
+                if (nodes.size() > index.length) {
+                    int size = Math.max(nodes.size(), index.length * 2);
+                    index = grow(index, size, -1);
+                    lowlink = Arrays.copyOf(lowlink, size);
+                    edgePos = Arrays.copyOf(edgePos, size);
+                    onStack = Arrays.copyOf(onStack, size);
+                    component = Arrays.copyOf(component, size);
+                    stack = Arrays.copyOf(stack, size);
+                    callStack = Arrays.copyOf(callStack, size);
+                    members = Arrays.copyOf(members, size);
+                }
+                
+                if (edgePos[v] < succs.length) {
+                    int w = succs[edgePos[v]++];
+                    if (index[w] < 0) {
+                        callStack[csp++] = w;
+                    } else if (onStack[w]) {
+                        lowlink[v] = Math.min(lowlink[v], index[w]);
+                    }
+                    continue;
+                }
+                
+                csp--;
+                if (csp > 0) {
+                    int parent = callStack[csp - 1];
+                    lowlink[parent] = Math.min(lowlink[parent], lowlink[v]);
+                }
+                
+                if (lowlink[v] == index[v]) {
+                    int c = memberStart.size();
+                    memberStart.add(numMembers);
+                    int w;
+                    do {
+                        w = stack[--sp];
+                        onStack[w] = false;
+                        component[w] = c;
+                        members[numMembers++] = w;
+                    } while (w != v);
+                }
+            }
+        }
+        memberStart.add(numMembers);
+        
+        countReachable(members, memberStart);
+        edges = null;
+    }
+    
+    private void countReachable(int[] members, List<Integer> memberStart) {
+        int numComponents = memberStart.size() - 1;
+        int[][] succComponents = new int[numComponents][];
+        boolean[] cyclic = new boolean[numComponents];
+        int[] users = new int[numComponents];
+        int[] mark = new int[numComponents];
+        Arrays.fill(mark, -1);
+        
+        for (int c = 0; c < numComponents; c++) {
+            int from = memberStart.get(c);
+            int to = memberStart.get(c + 1);
+            cyclic[c] = to - from > 1;
+            
+            int[] succs = new int[4];
+            int num = 0;
+            for (int i = from; i < to; i++) {
+                for (int w : edges.get(members[i])) {
+                    int cw = component[w];
+                    if (cw == c) {
+                        cyclic[c] = true;
+                    } else if (mark[cw] != c) {
+                        mark[cw] = c;
+                        if (num == succs.length) {
+                            succs = Arrays.copyOf(succs, num * 2);
+                        }
+                        succs[num++] = cw;
+                        users[cw]++;
+                    }
+                }
+            }
+            succComponents[c] = Arrays.copyOf(succs, num);
+        }
+        
+        // Components are numbered in reverse topological order, so the successors of a component come first.
+        // The bit set of a component is released (or handed over) as soon as its last user has merged it.
+        BitSet[] reachable = new BitSet[numComponents];
+        reachableCount = new int[numComponents];
+        for (int c = 0; c < numComponents; c++) {
+            BitSet bits = null;
+            for (int cw : succComponents[c]) {
+                users[cw]--;
+                if (bits == null && users[cw] == 0) {
+                    bits = reachable[cw];
+                } else {
+                    if (bits == null) {
+                        bits = new BitSet();
+                    }
+                    bits.or(reachable[cw]);
+                }
+                if (users[cw] == 0) {
+                    reachable[cw] = null;
+                }
+                for (int i = memberStart.get(cw); i < memberStart.get(cw + 1); i++) {
+                    bits.set(members[i]);
+                }
+            }
+            if (bits == null) {
+                bits = new BitSet();
+            }
+            if (cyclic[c]) {
+                for (int i = memberStart.get(c); i < memberStart.get(c + 1); i++) {
+                    bits.set(members[i]);
+                }
+            }
+            reachableCount[c] = bits.cardinality();
+            if (users[c] > 0) {
+                reachable[c] = bits;
+            }
+        }
+    }
+    
+    private int[] grow(int[] array, int size, int value) {
+        int length = array.length;
+        int[] result = Arrays.copyOf(array, size);
+        Arrays.fill(result, length, size, value);
+        return result;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.srcmodel.JavaProject;
+import org.jtool.srcmodel.JavaClass;
+import org.jtool.srcmodel.JavaMethod;
+import org.jtool.srcmodel.JavaField;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indexes fields accessed by methods within a project.
+ * A method accesses a field directly or indirectly through a getter or setter it calls.
+ * The accesses of each method are collected only once and shared by ATFD, FDP, LAA, TCC, and LCOM.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class FieldAccessIndex {
+    
+    private static Map<JavaProject, FieldAccessIndex> indices = new ConcurrentHashMap<>();
+    
+    private JavaProject jproject;
+    
+    private Map<JavaMethod, AccessInfo> accesses = new ConcurrentHashMap<>();
+    
+    private FieldAccessIndex(JavaProject jproject) {
+        this.jproject = jproject;
+    }
+    
+    public static FieldAccessIndex getInstance(JavaProject jproject) {
+        return indices.computeIfAbsent(jproject, jp -> new FieldAccessIndex(jp));
+    }
+    
+    public static void remove(JavaProject jproject) {
+        indices.remove(jproject);
+    }
+    
+    public static void clear() {
+        indices.clear();
+    }
+    
+    public List<JavaField> getDirectlyAccessedFields(JavaMethod jmethod) {
+        return getAccessInfo(jmethod).directFields;
+    }
+    
+    public Set<String> getForeignFields(JavaMethod jmethod) {
+        return getAccessInfo(jmethod).foreignFields;
+    }
+    
+    public Set<String> getForeignClasses(JavaMethod jmethod) {
+        return getAccessInfo(jmethod).foreignClasses;
+    }
+    
+    public List<String> getAccessedFields(JavaClass jclass, JavaMethod jmethod) {
+        AccessInfo info = getAccessInfo(jmethod);
+        List<String> fieldNames = new ArrayList<String>();
+        for (JavaField jf : info.directFields) {
+            if (jclass.equals(jf.getDeclaringClass())) {
+                fieldNames.add(jf.getName());
+            }
+        }
+        for (int i = 0; i < info.accessors.size(); i++) {
+            if (jclass.equals(info.accessors.get(i).getDeclaringClass())) {
+                fieldNames.add(info.accessorFields.get(i).getName());
+            }
+        }
+        return fieldNames;
+    }
+    
+    private AccessInfo getAccessInfo(JavaMethod jmethod) {
+        return accesses.computeIfAbsent(jmethod, jm -> new AccessInfo(jproject, jm));
+    }
+    
+    private static class AccessInfo {
+        List<JavaField> directFields;
+        List<JavaMethod> accessors = new ArrayList<>();
+        List<JavaField> accessorFields = new ArrayList<>();
+        Set<String> foreignFields;
+        Set<String> foreignClasses;
+        
+        AccessInfo(JavaProject jproject, JavaMethod jmethod) {
+            directFields = Collections.unmodifiableList(new ArrayList<>(jmethod.getAccessedFieldsInProject()));
+            
+            AccessorIndex accessorIndex = AccessorIndex.getInstance(jproject);
+            for (JavaMethod jm : jmethod.getCalledMethodsInProject()) {
+                JavaField jf = accessorIndex.getFieldbyAccessor(jm);
+                if (jf != null) {
+                    accessors.add(jm);
+                    accessorFields.add(jf);
+                }
+            }
+            
+            String className = jmethod.getDeclaringClass().getQualifiedName().fqn();
+            Set<String> fieldNames = new HashSet<>();
+            Set<String> classNames = new HashSet<>();
+            collectForeignFields(directFields, className, fieldNames, classNames);
+            collectForeignFields(accessorFields, className, fieldNames, classNames);
+            foreignFields = Collections.unmodifiableSet(fieldNames);
+            foreignClasses = Collections.unmodifiableSet(classNames);
+        }
+        
+        private void collectForeignFields(List<JavaField> fields, String className,
+                Set<String> fieldNames, Set<String> classNames) {
+            for (JavaField jf : fields) {
+                String declaringClass = jf.getDeclaringClass().getQualifiedName().fqn();
+                if (!className.equals(declaringClass)) {
+                    fieldNames.add(jf.getName());
+                    classNames.add(declaringClass);
+                }
+            }
+        }
+    }
+}
@@ -5,8 +5,6 @@
 
 package org.jtool.jxmetrics.core;
 
-import org.jtool.jxmetrics.measurement.LOC;
-import org.jtool.jxmetrics.measurement.NOST;
 import org.jtool.srcmodel.JavaProject;
 import org.jtool.srcmodel.JavaField;
 import java.util.List;
@@ -73,6 +71,14 @@ public class FieldMetrics extends CommonMetrics {
         return classMetrics.getQualifiedName();
     }
     
+    @Override
+    public MetricSelection getMetricSelection() {
+        if (classMetrics != null) {
+            return classMetrics.getMetricSelection();
+        }
+        return MetricSelection.ALL;
+    }
+    
     public FieldMetrics.Kind getKind() {
         return kind;
     }
@@ -90,8 +96,7 @@ public class FieldMetrics extends CommonMetrics {
     }
     
     protected void collectMetrics(JavaProject jproject, JavaField jfield) {
-        putMetricValue(LOC.Name, new LOC().calculate(jfield));
-        putMetricValue(NOST.Name,new NOST().calculate(jfield));
+        calculateMetrics(MetricCalculator.Level.FIELD, jproject, jfield);
     }
     
     public static void sort(List<FieldMetrics> mfields) {
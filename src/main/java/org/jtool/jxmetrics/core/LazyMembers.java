@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Map;
+import java.util.HashMap;
+
+/**
+ * Loads the methods and fields of a class from an XML file when they are first requested.
+ * The byte range of the class element is parsed if it is known. Otherwise, the whole file is parsed once
+ * for all the classes whose members have not been loaded yet, and later requests are served from that result.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+class LazyMembers {
+    
+    private Source source;
+    private long start;
+    private long end;
+    
+    LazyMembers(Source source, long start, long end) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+    
+    void load(ClassMetrics mclass) {
+        if (!source.isParsed() && start >= 0 && end > start && loadRange(mclass)) {
+            source.remove(mclass);
+            return;
+        }
+        if (!source.load(mclass)) {
+            System.err.println("Cannot load the members of " + mclass.getQualifiedName() + " from " + source.file.getPath());
+        }
+    }
+    
+    private boolean loadRange(ClassMetrics mclass) {
+        try (RandomAccessFile raf = new RandomAccessFile(source.file, "r")) {
+            byte[] bytes = new byte[(int)(end - start)];
+            raf.seek(start);
+            raf.readFully(bytes);
+            
+            InputSource input = new InputSource(new ByteArrayInputStream(bytes));
+            input.setEncoding(source.encoding);
+            MetricDataImporter importer = new MetricDataImporter(mclass);
+            parse(input, importer);
+            return importer.addMembers(mclass);
+        } catch (IOException | SAXException e) {
+            return false;
+        }
+    }
+    
+    private static void parse(InputSource input, MetricDataImporter importer) throws IOException, SAXException {
+        try {
+            SAXParserFactory.newInstance().newSAXParser().parse(input, importer);
+        } catch (ParserConfigurationException e) {
+            throw new SAXException(e.getMessage());
+        }
+    }
+    
+    /**
+     * Holds the classes of an XML file whose members have not been loaded yet.
+     */
+    static class Source {
+        
+        private File file;
+        private String encoding;
+        private Map<String, ClassMetrics> classes = new HashMap<>();
+        private MetricDataImporter importer;
+        
+        Source(File file, String encoding) {
+            this.file = file;
+            this.encoding = encoding;
+        }
+        
+        synchronized void add(ClassMetrics mclass) {
+            classes.put(getKey(mclass), mclass);
+        }
+        
+        synchronized void remove(ClassMetrics mclass) {
+            if (classes != null) {
+                classes.remove(getKey(mclass));
+            }
+        }
+        
+        synchronized boolean isParsed() {
+            return importer != null;
+        }
+        
+        synchronized boolean load(ClassMetrics mclass) {
+            if (importer == null) {
+                importer = new MetricDataImporter(classes);
+                try {
+                    parse(new InputSource(file.toURI().toString()), importer);
+                } catch (IOException | SAXException e) {
+                    System.err.println(e.getMessage());
+                }
+                classes = null;
+            }
+            return importer.addMembers(mclass);
+        }
+        
+        private String getKey(ClassMetrics mclass) {
+            return MetricDataImporter.getKey(mclass.getPackage().getProject().getName(), mclass.getQualifiedName());
+        }
+    }
+}
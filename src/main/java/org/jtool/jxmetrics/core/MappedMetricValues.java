@@ -0,0 +1,159 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads metric values of an element from a record in a memory-mapped file.
+ * A record holds the number of values followed by pairs of a sort identifier and a value sorted by the identifiers.
+ * The values are copied into the heap only when they are modified.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+class MappedMetricValues extends MetricValues {
+    
+    private static final int ENTRY_SIZE = Integer.BYTES + Double.BYTES;
+    
+    private ByteBuffer buffer;
+    private int position;
+    private int count;
+    private int[] sortIds;
+    private int[] ordinals;
+    private boolean sorted;
+    
+    /**
+     * Creates values read from a record.
+     * @param buffer the buffer of the mapped file
+     * @param position the position of the record in the buffer
+     * @param sortIds the identifiers of sorts in the file indexed by the ordinals
+     * @param ordinals the ordinals indexed by the identifiers of sorts in the file
+     * @param sorted {@code true} if the ordinals ascend with the identifiers of sorts, so that entries sorted by
+     *               the identifiers are also sorted by the ordinals
+     */
+    MappedMetricValues(ByteBuffer buffer, int position, int[] sortIds, int[] ordinals, boolean sorted) {
+        this.buffer = buffer;
+        this.position = position + Integer.BYTES;
+        this.count = buffer.getInt(position);
+        this.sortIds = sortIds;
+        this.ordinals = ordinals;
+        this.sorted = sorted;
+    }
+    
+    private int find(int ordinal) {
+        if (ordinal < 0 || ordinal >= sortIds.length || sortIds[ordinal] < 0) {
+            return -1;
+        }
+        int sortId = sortIds[ordinal];
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = buffer.getInt(position + mid * ENTRY_SIZE);
+            if (id < sortId) {
+                low = mid + 1;
+            } else if (id > sortId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+    
+    private void materialize() {
+        ByteBuffer mapped = buffer;
+        buffer = null;
+        for (int index = 0; index < count; index++) {
+            int offset = position + index * ENTRY_SIZE;
+            super.put(ordinals[mapped.getInt(offset)], mapped.getDouble(offset + Integer.BYTES));
+        }
+    }
+    
+    @Override
+    public boolean contains(int ordinal) {
+        if (buffer == null) {
+            return super.contains(ordinal);
+        }
+        return find(ordinal) >= 0;
+    }
+    
+    @Override
+    public double get(int ordinal, double defaultValue) {
+        if (buffer == null) {
+            return super.get(ordinal, defaultValue);
+        }
+        int index = find(ordinal);
+        if (index >= 0) {
+            return buffer.getDouble(position + index * ENTRY_SIZE + Integer.BYTES);
+        }
+        return defaultValue;
+    }
+    
+    @Override
+    public void put(int ordinal, double value) {
+        checkModifiable();
+        if (buffer != null) {
+            materialize();
+        }
+        super.put(ordinal, value);
+    }
+    
+    @Override
+    void remove(int ordinal) {
+        checkModifiable();
+        if (buffer != null) {
+            materialize();
+        }
+        super.remove(ordinal);
+    }
+    
+    @Override
+    int nextOrdinal(int from) {
+        if (buffer == null) {
+            return super.nextOrdinal(from);
+        }
+        if (sorted) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (getOrdinal(mid) < from) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low < count ? getOrdinal(low) : -1;
+        }
+        
+        for (int ordinal = Math.max(from, 0); ordinal < sortIds.length; ordinal++) {
+            if (find(ordinal) >= 0) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+    
+    private int getOrdinal(int index) {
+        return ordinals[buffer.getInt(position + index * ENTRY_SIZE)];
+    }
+    
+    @Override
+    public int size() {
+        if (buffer == null) {
+            return super.size();
+        }
+        return count;
+    }
+    
+    @Override
+    public void clear() {
+        checkModifiable();
+        buffer = null;
+        super.clear();
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes and opens a file that keeps metric values outside the heap.
+ * The file consists of a header, a region of records holding the code range and metric values of each element,
+ * and a structure region holding the names of the elements and their relationships.
+ * When a file is opened, the region of records is mapped into memory and the metric values of elements
+ * are read directly from it, so that they are not subject to garbage collection.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class MappedMetricsStore {
+    
+    public static final String MAPPED_FILENAME_EXT = ".jxm";
+    
+    private static final int MAGIC = 0x4A584D4D;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 24;
+    private static final int RANGE_SIZE = 4 * Integer.BYTES;
+    private static final long SEGMENT_SIZE = 1L << 30;
+    
+    private MappedMetricsStore() {
+    }
+    
+    public static void write(MetricsStore mstore, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(channel);
+            writer.write(mstore);
+        }
+    }
+    
+    public static MetricsStore open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Reader reader = new Reader(channel);
+            return reader.read();
+        }
+    }
+    
+    private static class Writer implements MetricsTreeCodec.Output {
+        
+        private FileChannel channel;
+        private DataOutputStream out;
+        private long offset = HEADER_SIZE;
+        private long[] offsets = new long[1024];
+        private int count = 0;
+        
+        private Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+        
+        private void write(MetricsStore mstore) throws IOException {
+            channel.position(HEADER_SIZE);
+            out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            MetricsTreeCodec.walk(mstore, this::writeRecord);
+            
+            long structureOffset = offset;
+            count = 0;
+            writeSorts();
+            MetricsTreeCodec.write(mstore, this);
+            out.flush();
+            
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putLong(HEADER_SIZE);
+            header.putLong(structureOffset);
+            header.flip();
+            channel.write(header, 0);
+        }
+        
+        private void writeRecord(Metrics metrics) throws IOException {
+            MetricValues values = metrics.metricValues;
+            int size = RANGE_SIZE + Integer.BYTES + values.size() * (Integer.BYTES + Double.BYTES);
+            long remaining = SEGMENT_SIZE - ((offset - HEADER_SIZE) % SEGMENT_SIZE);
+            if (size > remaining) {
+                for (long i = 0; i < remaining; i++) {
+                    out.writeByte(0);
+                }
+                offset = offset + remaining;
+            }
+            
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count] = offset;
+            count++;
+            
+            if (metrics instanceof CommonMetrics) {
+                CommonMetrics range = (CommonMetrics)metrics;
+                out.writeInt(range.getStartPosition());
+                out.writeInt(range.getEndPosition());
+                out.writeInt(range.getUpperLineNumber());
+                out.writeInt(range.getBottomLineNumber());
+            } else {
+                out.writeInt(-1);
+                out.writeInt(0);
+                out.writeInt(-1);
+                out.writeInt(0);
+            }
+            out.writeInt(values.size());
+            for (int ordinal = values.nextOrdinal(0); ordinal >= 0; ordinal = values.nextOrdinal(ordinal + 1)) {
+                out.writeInt(ordinal);
+                out.writeDouble(values.get(ordinal, 0.0));
+            }
+            offset = offset + size;
+        }
+        
+        private void writeSorts() throws IOException {
+            MetricIndex index = MetricIndex.getInstance();
+            int size = index.size();
+            out.writeInt(size);
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                out.writeUTF(index.getName(ordinal));
+            }
+        }
+        
+        @Override
+        public void writeInt(int value) throws IOException {
+            out.writeInt(value);
+        }
+        
+        @Override
+        public void writeString(String str) throws IOException {
+            out.writeBoolean(str != null);
+            if (str != null) {
+                out.writeUTF(str);
+            }
+        }
+        
+        @Override
+        public void writeMetrics(Metrics metrics) throws IOException {
+            out.writeLong(offsets[count++]);
+        }
+    }
+    
+    private static class Reader implements MetricsTreeCodec.Input {
+        
+        private FileChannel channel;
+        private DataInputStream in;
+        private long valuesOffset;
+        private ByteBuffer[] segments;
+        private int[] sortIds;
+        private int[] ordinals;
+        private boolean sorted = true;
+        
+        private Reader(FileChannel channel) {
+            this.channel = channel;
+        }
+        
+        private MetricsStore read() throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Not a mapped metrics file");
+            }
+            if (header.getInt() != VERSION) {
+                throw new IOException("Unsupported version of a mapped metrics file");
+            }
+            valuesOffset = header.getLong();
+            long structureOffset = header.getLong();
+            MetricsTreeCodec.check(valuesOffset == HEADER_SIZE && structureOffset >= valuesOffset &&
+                    structureOffset <= channel.size());
+            
+            int size = (int)((structureOffset - valuesOffset + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            segments = new ByteBuffer[size];
+            for (int index = 0; index < size; index++) {
+                long start = valuesOffset + index * SEGMENT_SIZE;
+                long length = Math.min(SEGMENT_SIZE, structureOffset - start);
+                segments[index] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+            
+            channel.position(structureOffset);
+            in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+            readSorts();
+            return MetricsTreeCodec.read(this);
+        }
+        
+        private void readSorts() throws IOException {
+            MetricIndex index = MetricIndex.getInstance();
+            int size = in.readInt();
+            MetricsTreeCodec.check(size >= 0 && size <= channel.size());
+            ordinals = new int[size];
+            for (int sortId = 0; sortId < size; sortId++) {
+                ordinals[sortId] = index.getOrdinal(in.readUTF());
+                if (sortId > 0 && ordinals[sortId] <= ordinals[sortId - 1]) {
+                    sorted = false;
+                }
+            }
+            sortIds = new int[index.size()];
+            Arrays.fill(sortIds, -1);
+            for (int sortId = 0; sortId < size; sortId++) {
+                sortIds[ordinals[sortId]] = sortId;
+            }
+        }
+        
+        @Override
+        public int readInt() throws IOException {
+            return in.readInt();
+        }
+        
+        @Override
+        public String readString() throws IOException {
+            if (in.readBoolean()) {
+                return in.readUTF();
+            }
+            return null;
+        }
+        
+        @Override
+        public void readMetrics(Metrics metrics) throws IOException {
+            long offset = in.readLong();
+            MetricsTreeCodec.check(offset >= valuesOffset && offset - valuesOffset < segments.length * SEGMENT_SIZE);
+            ByteBuffer segment = segments[(int)((offset - valuesOffset) / SEGMENT_SIZE)];
+            int position = (int)((offset - valuesOffset) % SEGMENT_SIZE);
+            MetricsTreeCodec.check(position <= segment.limit() - RANGE_SIZE - Integer.BYTES);
+            int count = segment.getInt(position + RANGE_SIZE);
+            MetricsTreeCodec.check(count >= 0 &&
+                    count <= (segment.limit() - position - RANGE_SIZE - Integer.BYTES) / (Integer.BYTES + Double.BYTES));
+            int start = segment.getInt(position);
+            int upper = segment.getInt(position + 2 * Integer.BYTES);
+            if (start >= 0 && upper >= 0) {
+                metrics.setCodeProperties(start, segment.getInt(position + Integer.BYTES),
+                        upper, segment.getInt(position + 3 * Integer.BYTES));
+            }
+            metrics.metricValues = new MappedMetricValues(segment, position + RANGE_SIZE, sortIds, ordinals, sorted);
+        }
+    }
+}
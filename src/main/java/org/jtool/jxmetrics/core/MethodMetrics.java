@@ -5,17 +5,6 @@
 
 package org.jtool.jxmetrics.core;
 
-import org.jtool.jxmetrics.measurement.LOC;
-import org.jtool.jxmetrics.measurement.NOST;
-import org.jtool.jxmetrics.measurement.CYCLO;
-import org.jtool.jxmetrics.measurement.NEST;
-import org.jtool.jxmetrics.measurement.PAR;
-import org.jtool.jxmetrics.measurement.LVAR;
-import org.jtool.jxmetrics.measurement.NOAMD;
-import org.jtool.jxmetrics.measurement.NOEMD;
-import org.jtool.jxmetrics.measurement.NOEFD;
-import org.jtool.jxmetrics.measurement.ATFD;
-import org.jtool.jxmetrics.measurement.FDP;
 import org.jtool.srcmodel.JavaProject;
 import org.jtool.srcmodel.JavaMethod;
 import org.jtool.srcmodel.JavaField;
@@ -28,7 +17,6 @@ import java.util.List;
 import java.util.Set;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 
 /**
  * Stores metric information on a method.
@@ -98,6 +86,14 @@ public class MethodMetrics extends CommonMetrics {
         return classMetrics.getQualifiedName();
     }
     
+    @Override
+    public MetricSelection getMetricSelection() {
+        if (classMetrics != null) {
+            return classMetrics.getMetricSelection();
+        }
+        return MetricSelection.ALL;
+    }
+    
     public MethodMetrics.Kind getKind() {
         return kind;
     }
@@ -123,75 +119,23 @@ public class MethodMetrics extends CommonMetrics {
     }
     
     protected void collectMetrics(JavaProject jproject, JavaMethod jmethod) {
-        putMetricValue(LOC.Name, new LOC().calculate(jmethod));
-        putMetricValue(NOST.Name, new NOST().calculate(jmethod));
-        
-        putMetricValue(NOAMD.Name, new NOAMD().calculate(jmethod));
-        putMetricValue(NOEMD.Name, new NOEMD().calculate(jmethod));
-        putMetricValue(NOEFD.Name, new NOEFD().calculate(jmethod));
-        
-        putMetricValue(CYCLO.Name, new CYCLO().calculate(jmethod));
-        putMetricValue(LVAR.Name, new LVAR().calculate(jmethod));
-        putMetricValue(NEST.Name, new NEST().calculate(jmethod));
-        putMetricValue(PAR.Name, new PAR().calculate(jmethod));
-        
-        putMetricValue(ATFD.Name, new ATFD().calculate(jproject, jmethod));
-        putMetricValue(FDP.Name, new FDP().calculate(jproject, jmethod));
+        calculateMetrics(MetricCalculator.Level.METHOD, jproject, jmethod);
     }
     
     public static Set<String> getAccessedFields(JavaProject jproject, JavaMethod jmethod) {
-        Set<String> accessedFields = new HashSet<String>();
-        
-        for (JavaField jf : jmethod.getAccessedFieldsInProject()) {
-            String declaringClass = jf.getDeclaringClass().getQualifiedName().fqn();
-            if (!jmethod.getDeclaringClass().getQualifiedName().fqn().equals(declaringClass)) {
-                accessedFields.add(jf.getName());
-            }
-        }
-        for (JavaMethod jm : jmethod.getCalledMethodsInProject()) {
-            JavaField jf = MethodMetrics.getFieldbyAccessor(jproject, jm);
-            if (jf != null) {
-                String declaringClass = jf.getDeclaringClass().getQualifiedName().fqn();
-                if (!jmethod.getDeclaringClass().getQualifiedName().fqn().equals(declaringClass)) {
-                    accessedFields.add(jf.getName());
-                }
-            }
-        }
-        return accessedFields;
+        return FieldAccessIndex.getInstance(jproject).getForeignFields(jmethod);
     }
     
     public static Set<String> getAccessedClasses(JavaProject jproject, JavaMethod jmethod) {
-        Set<String> accessedClasses = new HashSet<String>();
-        
-        for (JavaField jf : jmethod.getAccessedFieldsInProject()) {
-            String declaringClass = jf.getDeclaringClass().getQualifiedName().fqn();
-            if (!jmethod.getDeclaringClass().getQualifiedName().fqn().equals(declaringClass)) {
-                accessedClasses.add(declaringClass);
-            }
-        }
-        for (JavaMethod jm : jmethod.getCalledMethodsInProject()) {
-            JavaField jf = MethodMetrics.getFieldbyAccessor(jproject, jm);
-            if (jf != null) {
-                String declaringClass = jf.getDeclaringClass().getQualifiedName().fqn();
-                if (!jmethod.getDeclaringClass().getQualifiedName().fqn().equals(declaringClass)) {
-                    accessedClasses.add(declaringClass);
-                }
-            }
-        }
-        return accessedClasses;
+        return FieldAccessIndex.getInstance(jproject).getForeignClasses(jmethod);
     }
     
     public static JavaField getFieldbyAccessor(JavaProject jproject, JavaMethod jmethod) {
-        if (isSetter(jproject, jmethod)) {
-            return jmethod.getAccessedFields().iterator().next();
-        } else if (isGetter(jproject, jmethod)) {
-            return jmethod.getAccessedFields().iterator().next();
-        }
-        return null;
+        return AccessorIndex.getInstance(jproject).getFieldbyAccessor(jmethod);
     }
     
     public static boolean isAccessor(JavaProject jproject, JavaMethod jmethod) {
-        return isSetter(jproject, jmethod) || isGetter(jproject, jmethod);
+        return AccessorIndex.getInstance(jproject).isAccessor(jmethod);
     }
     
     public static boolean isSetter(JavaProject jproject, JavaMethod jmethod) {
@@ -199,7 +143,7 @@ public class MethodMetrics extends CommonMetrics {
             return false;
         }
         
-        CFG cfg = jproject.getModelBuilder().getCFG(jmethod);
+        CFG cfg = getCFG(jproject, jmethod);
         CFGMethodEntry entry = (CFGMethodEntry)cfg.getEntryNode();
         JReference param = entry.getFormalIn(0).getDefVariable();
         
@@ -224,7 +168,7 @@ public class MethodMetrics extends CommonMetrics {
             return false;
         }
         
-        CFG cfg = jproject.getModelBuilder().getCFG(jmethod);
+        CFG cfg = getCFG(jproject, jmethod);
         int num = 0;
         if (cfg.getNodes().size() == 4) {
             for (CFGNode node : cfg.getNodes()) {
@@ -239,6 +183,12 @@ public class MethodMetrics extends CommonMetrics {
         return num == 1;
     }
     
+    private static CFG getCFG(JavaProject jproject, JavaMethod jmethod) {
+        synchronized (jproject.getModelBuilder()) {
+            return jproject.getModelBuilder().getCFG(jmethod);
+        }
+    }
+    
     public static void sort(List<MethodMetrics> methods) {
         Collections.sort(methods, new Comparator<>() {
             
@@ -251,26 +201,21 @@ public class MethodMetrics extends CommonMetrics {
     
     public static int getNumberOfStatements(JavaMethod jmethod) {
         if (jmethod.getASTNode() != null) {
-            StatementCollector statementCollector = new StatementCollector();
-            jmethod.getASTNode().accept(statementCollector);
-            return statementCollector.getNumberOfStatements();
+            return StatementStore.getInstance().get(jmethod).getNumberOfStatements();
         }
         return 0;
     }
     
     public static int getMaximumNumberOfNesting(JavaMethod jmethod) {
         if (jmethod.getASTNode() != null) {
-            StatementCollector statementCollector = new StatementCollector();
-            jmethod.getASTNode().accept(statementCollector);
-            return statementCollector.getMaximumNuberOfNesting();}
+            return StatementStore.getInstance().get(jmethod).getMaximumNuberOfNesting();
+        }
         return 0;
     }
     
     public static int getCyclomaticNumber(JavaMethod jmethod) {
         if (jmethod.getASTNode() != null) {
-            StatementCollector statementCollector = new StatementCollector();
-            jmethod.getASTNode().accept(statementCollector);
-            return statementCollector.getCyclomaticNumber();
+            return StatementStore.getInstance().get(jmethod).getCyclomaticNumber();
         }
         return 0;
     }
@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import java.util.Arrays;
+
+/**
+ * Accumulates the sums and maximums of metric values of child elements in a single traversal.
+ * A missing value is treated as zero, and no rounding is applied.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+class MetricAggregate {
+    
+    private static final double[] EMPTY = new double[0];
+    
+    private double[] sums = EMPTY;
+    private double[] maxes = EMPTY;
+    
+    void add(MetricValues values) {
+        for (int ordinal = values.nextOrdinal(0); ordinal >= 0; ordinal = values.nextOrdinal(ordinal + 1)) {
+            if (ordinal >= sums.length) {
+                int length = Math.max(ordinal + 1, MetricIndex.getInstance().size());
+                sums = Arrays.copyOf(sums, length);
+                maxes = Arrays.copyOf(maxes, length);
+            }
+            double value = values.get(ordinal, 0.0);
+            sums[ordinal] = sums[ordinal] + value;
+            if (value > maxes[ordinal]) {
+                maxes[ordinal] = value;
+            }
+        }
+    }
+    
+    double getSum(String sort) {
+        int ordinal = MetricIndex.getInstance().findOrdinal(sort);
+        if (ordinal >= 0 && ordinal < sums.length) {
+            return sums[ordinal];
+        }
+        return 0.0;
+    }
+    
+    double getMax(String sort) {
+        int ordinal = MetricIndex.getInstance().findOrdinal(sort);
+        if (ordinal >= 0 && ordinal < maxes.length) {
+            return maxes[ordinal];
+        }
+        return 0.0;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.srcmodel.JavaProject;
+import org.jtool.srcmodel.JavaPackage;
+import org.jtool.srcmodel.JavaClass;
+import org.jtool.srcmodel.JavaMethod;
+import org.jtool.srcmodel.JavaField;
+import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Calculates the value of a metric on elements at a single level.
+ * A calculator declares the metrics it depends on and its relative cost,
+ * and is shared by all the elements at its level, so it must be stateless.
+ * 
+ * @param <E> the type of elements whose metric values are calculated
+ * @param <M> the type of metric information on the elements
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class MetricCalculator<E, M extends Metrics> {
+    
+    public enum Level {
+        FIELD, METHOD, CLASS, PACKAGE, PROJECT;
+    }
+    
+    public enum Cost {
+        LOW, MEDIUM, HIGH;
+    }
+    
+    @FunctionalInterface
+    public interface Calculation<E, M extends Metrics> {
+        double calculate(JavaProject jproject, E element, M metrics);
+    }
+    
+    private final String name;
+    private final Level level;
+    private final Cost cost;
+    private final List<String> dependencies;
+    private final Calculation<E, M> calculation;
+    private volatile int ordinal = -1;
+    
+    private MetricCalculator(String name, Level level, Cost cost, String[] dependencies,
+            Calculation<E, M> calculation) {
+        this.name = name;
+        this.level = level;
+        this.cost = cost;
+        this.dependencies = Collections.unmodifiableList(Arrays.asList(dependencies));
+        this.calculation = calculation;
+    }
+    
+    public static MetricCalculator<JavaField, FieldMetrics> forField(String name, Cost cost,
+            Calculation<JavaField, FieldMetrics> calculation, String... dependencies) {
+        return new MetricCalculator<>(name, Level.FIELD, cost, dependencies, calculation);
+    }
+    
+    public static MetricCalculator<JavaMethod, MethodMetrics> forMethod(String name, Cost cost,
+            Calculation<JavaMethod, MethodMetrics> calculation, String... dependencies) {
+        return new MetricCalculator<>(name, Level.METHOD, cost, dependencies, calculation);
+    }
+    
+    public static MetricCalculator<JavaClass, ClassMetrics> forClass(String name, Cost cost,
+            Calculation<JavaClass, ClassMetrics> calculation, String... dependencies) {
+        return new MetricCalculator<>(name, Level.CLASS, cost, dependencies, calculation);
+    }
+    
+    public static MetricCalculator<JavaPackage, PackageMetrics> forPackage(String name, Cost cost,
+            Calculation<JavaPackage, PackageMetrics> calculation, String... dependencies) {
+        return new MetricCalculator<>(name, Level.PACKAGE, cost, dependencies, calculation);
+    }
+    
+    public static MetricCalculator<JavaProject, ProjectMetrics> forProject(String name, Cost cost,
+            Calculation<JavaProject, ProjectMetrics> calculation, String... dependencies) {
+        return new MetricCalculator<>(name, Level.PROJECT, cost, dependencies, calculation);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public Level getLevel() {
+        return level;
+    }
+    
+    public Cost getCost() {
+        return cost;
+    }
+    
+    public List<String> getDependencies() {
+        return dependencies;
+    }
+    
+    int getOrdinal() {
+        if (ordinal < 0) {
+            ordinal = MetricIndex.getInstance().getOrdinal(name);
+        }
+        return ordinal;
+    }
+    
+    public double calculate(JavaProject jproject, E element, M metrics) {
+        return calculation.calculate(jproject, element, metrics);
+    }
+    
+    @Override
+    public String toString() {
+        return name + "@" + level;
+    }
+}
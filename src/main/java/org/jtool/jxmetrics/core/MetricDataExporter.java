@@ -58,13 +58,11 @@ public class MetricDataExporter {
         packageElem.setAttribute(MetricsManager.NameAttr, mpackage.getName());
         parent.appendChild(packageElem);
         
-        mpackage.sortNames(mpackage.getAfferentPackages());
         for (String name : mpackage.getAfferentPackages()) {
             Element afferentElem = doc.createElement(MetricsManager.AfferentElem);
             afferentElem.setAttribute(MetricsManager.FqnAttr, name);
             packageElem.appendChild(afferentElem);
         }
-        mpackage.sortNames(mpackage.getEfferentPackages());
         for (String name : mpackage.getEfferentPackages()) {
             Element efferentElem = doc.createElement(MetricsManager.EfferentElem);
             efferentElem.setAttribute(MetricsManager.FqnAttr, name);
@@ -94,20 +92,17 @@ public class MetricDataExporter {
         superclassElem.setAttribute(MetricsManager.FqnAttr, mclass.getSuperClassName());
         classElem.appendChild(superclassElem);
         
-        mclass.sortNames(mclass.getSuperInterfaceNames());
         for (String name : mclass.getSuperInterfaceNames()) {
             Element superinterfaceElem = doc.createElement(MetricsManager.SuperInterfaceElem);
             superinterfaceElem.setAttribute(MetricsManager.FqnAttr, name);
             classElem.appendChild(superinterfaceElem);
         }
         
-        mclass.sortNames(mclass.getAfferentClasses());
         for (String name : mclass.getAfferentClasses()) {
             Element afferentElem = doc.createElement(MetricsManager.AfferentElem);
             afferentElem.setAttribute(MetricsManager.FqnAttr, name);
             classElem.appendChild(afferentElem);
         }
-        mclass.sortNames(mclass.getEfferentClasses());
         for (String name : mclass.getEfferentClasses()) {
             Element efferentElem = doc.createElement(MetricsManager.EfferentElem);
             efferentElem.setAttribute(MetricsManager.FqnAttr, name);
@@ -164,7 +159,7 @@ public class MetricDataExporter {
     private void exportMetricAttributes(Document doc, Element parent, Map<String, Double> metrics) {
         Element metricsElem = doc.createElement(MetricsManager.MetricsElem);
         for (String sort : metrics.keySet()) {
-            double value = metrics.get(sort).doubleValue();
+            double value = Metrics.round(metrics.get(sort).doubleValue());
             metricsElem.setAttribute(sort, String.valueOf(value));
         }
         parent.appendChild(metricsElem);
@@ -6,11 +6,26 @@
 package org.jtool.jxmetrics.core;
 
 import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.ext.Locator2;
 import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.HashMap;
 
 /**
  * Imports the metric values related to element within a project from an XML file.
+ * In the lazy mode, the methods and fields of each class are skipped, and the byte range of the class element
+ * is recorded so that they are loaded when they are first requested. The metric values of the skipped elements
+ * are summarized into their package while they are skipped.
  * 
  * @author Katsuhisa Maruyama
  */
@@ -24,24 +39,96 @@ public class MetricDataImporter extends DefaultHandler {
     private FieldMetrics mfield;
     private Metrics parent;
     
+    private File file;
+    private boolean lazy = false;
+    private Locator locator;
+    private String encoding = "UTF-8";
+    private boolean skipping = false;
+    private boolean hasMembers = false;
+    private int classStartLine;
+    private List<ClassMetrics> lazyClasses = new ArrayList<>();
+    private List<int[]> lazyLines = new ArrayList<>();
+    
+    private MetricCalculator.Level skippedLevel;
+    
+    private Map<String, ClassMetrics> targets;
+    private String projectName;
+    private boolean capturing = false;
+    private Map<ClassMetrics, List<MethodMetrics>> methods = new HashMap<>();
+    private Map<ClassMetrics, List<FieldMetrics>> fields = new HashMap<>();
+    
     public MetricDataImporter() {
     }
     
+    public MetricDataImporter(File file, boolean lazy) {
+        this.file = file;
+        this.lazy = lazy;
+    }
+    
+    MetricDataImporter(ClassMetrics target) {
+        this(Collections.singletonMap(target.getQualifiedName(), target));
+    }
+    
+    /**
+     * Creates an importer that collects only the methods and fields of given classes.
+     * @param targets the classes keyed by {@link #getKey(String, String)}, whose project name is {@code null}
+     *                when a class element is parsed without its enclosing project element
+     */
+    MetricDataImporter(Map<String, ClassMetrics> targets) {
+        this.targets = targets;
+    }
+    
+    static String getKey(String projectName, String fqn) {
+        return projectName != null ? projectName + " " + fqn : fqn;
+    }
+    
     public MetricsStore getJxmProjects() {
         return mstore;
     }
     
+    @Override
+    public void setDocumentLocator(Locator locator) {
+        this.locator = locator;
+    }
+    
     @Override
     public void startDocument() throws SAXException {
+        if (locator == null || file == null) {
+            lazy = false;
+        }
+        if (locator instanceof Locator2 && ((Locator2)locator).getEncoding() != null) {
+            encoding = ((Locator2)locator).getEncoding();
+        }
     }
     
     @Override
     public void endDocument() throws SAXException {
+        if (targets != null) {
+            return;
+        }
+        if (lazy) {
+            setLazyMembers();
+        }
         mstore.getProjectMetrics().forEach(p -> p.collectMetricsAfterXMLImport());
     }
     
     @Override
     public void startElement(String uri, String name, String qname, Attributes attrs) {
+        if (targets != null) {
+            startMemberElement(qname, attrs);
+            return;
+        }
+        if (skipping) {
+            if (qname.equals(MetricsManager.MetricsElem) && mpackage != null) {
+                MetricValues values = new MetricValues();
+                for (int i = 0; i < attrs.getLength(); i++) {
+                    values.put(attrs.getQName(i), Double.parseDouble(attrs.getValue(i)));
+                }
+                mpackage.addSkippedMember(skippedLevel, values);
+            }
+            return;
+        }
+        
         if (qname.equals(MetricsManager.ProjectsElem)) {
             setJxmProjectAttributes(attrs);
             return;
@@ -62,6 +149,18 @@ public class MetricDataImporter extends DefaultHandler {
         if (qname.equals(MetricsManager.ClassElem)) {
             setClassAttributes(attrs);
             parent = mclass;
+            if (lazy) {
+                classStartLine = locator.getLineNumber();
+                hasMembers = false;
+            }
+            return;
+        }
+        
+        if (lazy && (qname.equals(MetricsManager.MethodElem) || qname.equals(MetricsManager.FieldElem))) {
+            skipping = true;
+            hasMembers = true;
+            skippedLevel = qname.equals(MetricsManager.MethodElem) ?
+                    MetricCalculator.Level.METHOD : MetricCalculator.Level.FIELD;
             return;
         }
         
@@ -134,6 +233,17 @@ public class MetricDataImporter extends DefaultHandler {
     
     @Override
     public void endElement(String uri, String name, String qname) {
+        if (targets != null) {
+            endMemberElement(qname);
+            return;
+        }
+        if (skipping) {
+            if (qname.equals(MetricsManager.MethodElem) || qname.equals(MetricsManager.FieldElem)) {
+                skipping = false;
+            }
+            return;
+        }
+        
         if (qname.equals(MetricsManager.ProjectElem)) {
             parent = null;
             return;
@@ -145,6 +255,10 @@ public class MetricDataImporter extends DefaultHandler {
         }
         
         if (qname.equals(MetricsManager.ClassElem)) {
+            if (lazy && hasMembers && mclass != null) {
+                lazyClasses.add(mclass);
+                lazyLines.add(new int[] { classStartLine, locator.getLineNumber() });
+            }
             parent = mpackage;
             return;
         }
@@ -190,7 +304,7 @@ public class MetricDataImporter extends DefaultHandler {
             }
         }
         if (name != null && path != null) {
-            mproject = new ProjectMetrics(name, path);
+            mproject = new ProjectMetrics(name, path, mstore.getSymbolTable());
             mstore.add(mproject);
         }
     }
@@ -257,7 +371,11 @@ public class MetricDataImporter extends DefaultHandler {
         
         if (fqn != null) {
             mmethod = new MethodMetrics(fqn, name, type, modifiers, kindStr, mclass);
-            mclass.addMethod(mmethod);
+            if (targets != null) {
+                methods.get(mclass).add(mmethod);
+            } else {
+                mclass.addMethod(mmethod);
+            }
         }
     }
     
@@ -284,7 +402,11 @@ public class MetricDataImporter extends DefaultHandler {
         
         if (fqn != null) {
             mfield = new FieldMetrics(fqn, name, type, modifiers, kindStr, mclass);
-            mclass.addField(mfield);
+            if (targets != null) {
+                fields.get(mclass).add(mfield);
+            } else {
+                mclass.addField(mfield);
+            }
         }
     }
     
@@ -324,6 +446,114 @@ public class MetricDataImporter extends DefaultHandler {
         }
     }
     
+    private void startMemberElement(String qname, Attributes attrs) {
+        if (qname.equals(MetricsManager.ProjectElem)) {
+            projectName = attrs.getValue(MetricsManager.NameAttr);
+            return;
+        }
+        if (qname.equals(MetricsManager.ClassElem)) {
+            mclass = targets.get(getKey(projectName, attrs.getValue(MetricsManager.FqnAttr)));
+            capturing = mclass != null;
+            if (capturing) {
+                methods.putIfAbsent(mclass, new ArrayList<>());
+                fields.putIfAbsent(mclass, new ArrayList<>());
+            }
+            parent = null;
+            return;
+        }
+        if (!capturing) {
+            return;
+        }
+        
+        if (qname.equals(MetricsManager.MethodElem)) {
+            setMethodAttributes(attrs);
+            parent = mmethod;
+        } else if (qname.equals(MetricsManager.FieldElem)) {
+            setFieldAttributes(attrs);
+            parent = mfield;
+        } else if (qname.equals(MetricsManager.MetricsElem)) {
+            setMetricAttributes(attrs);
+        } else if (qname.equals(MetricsManager.CodeElem)) {
+            setCodeAttributes(attrs);
+        }
+    }
+    
+    private void endMemberElement(String qname) {
+        if (qname.equals(MetricsManager.ClassElem)) {
+            capturing = false;
+        } else if (qname.equals(MetricsManager.MethodElem) || qname.equals(MetricsManager.FieldElem)) {
+            parent = null;
+        }
+    }
+    
+    /**
+     * Adds the collected methods and fields to a target class, which are released from this importer.
+     * @param mclass the target class
+     * @return {@code true} if the element of the class was found, otherwise {@code false}
+     */
+    boolean addMembers(ClassMetrics mclass) {
+        List<MethodMetrics> collectedMethods = methods.remove(mclass);
+        List<FieldMetrics> collectedFields = fields.remove(mclass);
+        if (collectedMethods == null) {
+            return false;
+        }
+        for (MethodMetrics mmethod : collectedMethods) {
+            mclass.addMethod(mmethod);
+        }
+        for (FieldMetrics mfield : collectedFields) {
+            mclass.addField(mfield);
+        }
+        return true;
+    }
+    
+    private void setLazyMembers() {
+        int[] lines = new int[lazyLines.size() * 2];
+        for (int index = 0; index < lazyLines.size(); index++) {
+            lines[index * 2] = lazyLines.get(index)[0];
+            lines[index * 2 + 1] = lazyLines.get(index)[1] + 1;
+        }
+        Arrays.sort(lines);
+        
+        long[] offsets = new long[lines.length];
+        Arrays.fill(offsets, -1);
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buf = new byte[1 << 16];
+            int line = 1;
+            long offset = 0;
+            int next = 0;
+            while (next < lines.length && lines[next] <= 1) {
+                offsets[next++] = 0;
+            }
+            int len;
+            while (next < lines.length && (len = in.read(buf)) > 0) {
+                for (int i = 0; i < len; i++) {
+                    if (buf[i] == '\n') {
+                        line++;
+                        while (next < lines.length && lines[next] == line) {
+                            offsets[next++] = offset + i + 1;
+                        }
+                    }
+                }
+                offset = offset + len;
+            }
+            while (next < lines.length) {
+                offsets[next++] = offset;
+            }
+        } catch (IOException e) {
+            Arrays.fill(offsets, -1);
+        }
+        
+        LazyMembers.Source source = new LazyMembers.Source(file, encoding);
+        for (int index = 0; index < lazyClasses.size(); index++) {
+            long start = offsets[Arrays.binarySearch(lines, lazyLines.get(index)[0])];
+            long end = offsets[Arrays.binarySearch(lines, lazyLines.get(index)[1] + 1)];
+            source.add(lazyClasses.get(index));
+            lazyClasses.get(index).setLazyMembers(new LazyMembers(source, start, end));
+        }
+        lazyClasses.clear();
+        lazyLines.clear();
+    }
+    
     @SuppressWarnings("unused")
     private boolean getBoolean(String value) {
         return value.equals(MetricsManager.Yes);
@@ -0,0 +1,183 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes the metric values related to elements within a project as JSON Lines.
+ * Each project, package, class, method, and field is written as one JSON object on its own line,
+ * which holds the qualified name of its parent, its code range, and its metric values.
+ * The output is flushed after each package, so that a consumer can read records while they are being written.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class MetricDataJsonWriter {
+    
+    public static final String ProjectRecord = "project";
+    public static final String PackageRecord = "package";
+    public static final String ClassRecord = "class";
+    public static final String MethodRecord = "method";
+    public static final String FieldRecord = "field";
+    
+    private Writer writer;
+    private StringBuilder buf = new StringBuilder(256);
+    
+    public MetricDataJsonWriter() {
+    }
+    
+    public void write(MetricsStore mstore, OutputStream out) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        for (ProjectMetrics mproject : mstore.getProjectMetrics()) {
+            begin(ProjectRecord, mproject.getName(), null);
+            appendString(MetricsManager.NameAttr, mproject.getName());
+            appendString(MetricsManager.PathAttr, mproject.getPath());
+            appendString(MetricsManager.TimeAttr, mstore.getTimeAsString());
+            end(mproject);
+            
+            for (PackageMetrics mpackage : mproject.getPackages()) {
+                write(mproject, mpackage);
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+    
+    private void write(ProjectMetrics mproject, PackageMetrics mpackage) throws IOException {
+        begin(PackageRecord, mpackage.getName(), mproject.getName());
+        appendString(MetricsManager.NameAttr, mpackage.getName());
+        end(mpackage);
+        
+        mpackage.sortClasses();
+        for (ClassMetrics mclass : mpackage.getClasses()) {
+            begin(ClassRecord, mclass.getQualifiedName(), mpackage.getName());
+            appendString(MetricsManager.NameAttr, mclass.getName());
+            appendNumber(MetricsManager.ModifiersAttr, mclass.getModifiers());
+            appendString(MetricsManager.PathAttr, mclass.getPath());
+            appendString(MetricsManager.KindAttr, mclass.getKind().toString());
+            appendCode(mclass);
+            end(mclass);
+            
+            mclass.sortMethods();
+            for (MethodMetrics mmethod : mclass.getMethods()) {
+                begin(MethodRecord, mmethod.getQualifiedName(), mclass.getQualifiedName());
+                appendString(MetricsManager.NameAttr, mmethod.getName());
+                appendString(MetricsManager.TypeAttr, mmethod.getReturnType());
+                appendNumber(MetricsManager.ModifiersAttr, mmethod.getModifiers());
+                appendString(MetricsManager.KindAttr, mmethod.getKind().toString());
+                appendCode(mmethod);
+                end(mmethod);
+            }
+            mclass.sortFields();
+            for (FieldMetrics mfield : mclass.getFields()) {
+                begin(FieldRecord, mfield.getQualifiedName(), mclass.getQualifiedName());
+                appendString(MetricsManager.NameAttr, mfield.getName());
+                appendString(MetricsManager.TypeAttr, mfield.getType());
+                appendNumber(MetricsManager.ModifiersAttr, mfield.getModifiers());
+                appendString(MetricsManager.KindAttr, mfield.getKind().toString());
+                appendCode(mfield);
+                end(mfield);
+            }
+        }
+    }
+    
+    private void begin(String record, String fqn, String parent) {
+        buf.setLength(0);
+        buf.append('{');
+        appendKey("record");
+        appendValue(record);
+        appendString(MetricsManager.FqnAttr, fqn);
+        appendString("parent", parent);
+    }
+    
+    private void end(Metrics metrics) throws IOException {
+        buf.append(',');
+        appendKey(MetricsManager.MetricsElem);
+        buf.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Double> entry : metrics.getMetricValues().entrySet()) {
+            if (!first) {
+                buf.append(',');
+            }
+            first = false;
+            appendKey(entry.getKey());
+            appendValue(Metrics.round(entry.getValue().doubleValue()));
+        }
+        buf.append("}}\n");
+        writer.write(buf.toString());
+    }
+    
+    private void appendCode(CommonMetrics codeInfo) {
+        buf.append(',');
+        appendKey(MetricsManager.CodeElem);
+        buf.append('{');
+        appendKey(MetricsManager.StartPositionAttr);
+        buf.append(codeInfo.getStartPosition()).append(',');
+        appendKey(MetricsManager.EndPositionAttr);
+        buf.append(codeInfo.getEndPosition()).append(',');
+        appendKey(MetricsManager.UpperLineNumberAttr);
+        buf.append(codeInfo.getUpperLineNumber()).append(',');
+        appendKey(MetricsManager.BottomLineNumberAttr);
+        buf.append(codeInfo.getBottomLineNumber()).append('}');
+    }
+    
+    private void appendString(String key, String value) {
+        buf.append(',');
+        appendKey(key);
+        appendValue(value);
+    }
+    
+    private void appendNumber(String key, int value) {
+        buf.append(',');
+        appendKey(key);
+        buf.append(value);
+    }
+    
+    private void appendKey(String key) {
+        appendValue(key);
+        buf.append(':');
+    }
+    
+    private void appendValue(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            buf.append("null");
+        } else {
+            buf.append(value);
+        }
+    }
+    
+    private void appendValue(String str) {
+        if (str == null) {
+            buf.append("null");
+            return;
+        }
+        
+        buf.append('"');
+        for (int i = 0; i < str.length(); i++) {
+            char ch = str.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                buf.append('\\').append(ch);
+            } else if (ch == '\n') {
+                buf.append("\\n");
+            } else if (ch == '\r') {
+                buf.append("\\r");
+            } else if (ch == '\t') {
+                buf.append("\\t");
+            } else if (ch < 0x20) {
+                buf.append(String.format("\\u%04x", (int)ch));
+            } else {
+                buf.append(ch);
+            }
+        }
+        buf.append('"');
+    }
+}
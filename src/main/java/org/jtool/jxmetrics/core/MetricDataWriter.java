@@ -0,0 +1,217 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the metric values related to elements within a project into an XML file element by element.
+ * The output follows the same schema as that of {@code MetricDataExporter}, but no document is built in memory.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class MetricDataWriter {
+    
+    private static final String INDENT = "    ";
+    
+    private XMLStreamWriter writer;
+    
+    public MetricDataWriter() {
+    }
+    
+    public void write(MetricsStore mstore, Path path) throws IOException, XMLStreamException {
+        write(mstore, path, -1);
+    }
+    
+    /**
+     * Writes metric values into a file.
+     * @param mstore the store containing the metric values
+     * @param path the path of the file
+     * @param deflateLevel the level of gzip compression from {@code 0} to {@code 9}, or {@code -1} for no compression
+     */
+    public void write(MetricsStore mstore, Path path, int deflateLevel) throws IOException, XMLStreamException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = open(Channels.newOutputStream(channel), deflateLevel)) {
+            write(mstore, out);
+            out.flush();
+        }
+    }
+    
+    static OutputStream open(OutputStream out, int deflateLevel) throws IOException {
+        if (deflateLevel < 0) {
+            return new BufferedOutputStream(out, 1 << 16);
+        }
+        return new BufferedOutputStream(new GZIPOutputStream(out, 1 << 16) {
+            {
+                def.setLevel(Math.min(deflateLevel, Deflater.BEST_COMPRESSION));
+            }
+        }, 1 << 16);
+    }
+    
+    public void write(MetricsStore mstore, OutputStream out) throws XMLStreamException {
+        writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+        writer.writeStartDocument("UTF-8", "1.0");
+        
+        start(MetricsManager.ProjectsElem, 0);
+        writer.writeAttribute(MetricsManager.NameAttr, mstore.getName());
+        writer.writeAttribute(MetricsManager.PathAttr, mstore.getTarget());
+        writer.writeAttribute(MetricsManager.TimeAttr, mstore.getTimeAsString());
+        
+        for (ProjectMetrics mproject : mstore.getProjectMetrics()) {
+            start(MetricsManager.ProjectElem, 1);
+            writer.writeAttribute(MetricsManager.NameAttr, mproject.getName());
+            writer.writeAttribute(MetricsManager.PathAttr, value(mproject.getPath()));
+            
+            writeMetricAttributes(mproject.getMetricValues(), 2);
+            
+            for (PackageMetrics mpackage : mproject.getPackages()) {
+                write(mpackage);
+            }
+            end(1);
+        }
+        end(0);
+        
+        writer.writeCharacters("\n");
+        writer.writeEndDocument();
+        writer.flush();
+        writer.close();
+    }
+    
+    private void write(PackageMetrics mpackage) throws XMLStreamException {
+        start(MetricsManager.PackageElem, 2);
+        writer.writeAttribute(MetricsManager.NameAttr, mpackage.getName());
+        
+        for (String name : mpackage.getAfferentPackages()) {
+            empty(MetricsManager.AfferentElem, 3);
+            writer.writeAttribute(MetricsManager.FqnAttr, name);
+        }
+        for (String name : mpackage.getEfferentPackages()) {
+            empty(MetricsManager.EfferentElem, 3);
+            writer.writeAttribute(MetricsManager.FqnAttr, name);
+        }
+        
+        writeMetricAttributes(mpackage.getMetricValues(), 3);
+        
+        mpackage.sortClasses();
+        for (ClassMetrics mclass : mpackage.getClasses()) {
+            write(mclass);
+        }
+        end(2);
+    }
+    
+    private void write(ClassMetrics mclass) throws XMLStreamException {
+        start(MetricsManager.ClassElem, 3);
+        writer.writeAttribute(MetricsManager.FqnAttr, mclass.getQualifiedName());
+        writer.writeAttribute(MetricsManager.NameAttr, value(mclass.getName()));
+        writer.writeAttribute(MetricsManager.ModifiersAttr, String.valueOf(mclass.getModifiers()));
+        writer.writeAttribute(MetricsManager.PathAttr, value(mclass.getPath()));
+        writer.writeAttribute(MetricsManager.KindAttr, mclass.getKind().toString());
+        
+        writeCodeAttributes(mclass, 4);
+        
+        empty(MetricsManager.SuperClassElem, 4);
+        writer.writeAttribute(MetricsManager.FqnAttr, value(mclass.getSuperClassName()));
+        
+        for (String name : mclass.getSuperInterfaceNames()) {
+            empty(MetricsManager.SuperInterfaceElem, 4);
+            writer.writeAttribute(MetricsManager.FqnAttr, name);
+        }
+        
+        for (String name : mclass.getAfferentClasses()) {
+            empty(MetricsManager.AfferentElem, 4);
+            writer.writeAttribute(MetricsManager.FqnAttr, name);
+        }
+        for (String name : mclass.getEfferentClasses()) {
+            empty(MetricsManager.EfferentElem, 4);
+            writer.writeAttribute(MetricsManager.FqnAttr, name);
+        }
+        
+        writeMetricAttributes(mclass.getMetricValues(), 4);
+        
+        mclass.sortMethods();
+        for (MethodMetrics mmethod : mclass.getMethods()) {
+            start(MetricsManager.MethodElem, 4);
+            writer.writeAttribute(MetricsManager.FqnAttr, mmethod.getQualifiedName());
+            writer.writeAttribute(MetricsManager.NameAttr, value(mmethod.getName()));
+            writer.writeAttribute(MetricsManager.TypeAttr, value(mmethod.getReturnType()));
+            writer.writeAttribute(MetricsManager.ModifiersAttr, String.valueOf(mmethod.getModifiers()));
+            writer.writeAttribute(MetricsManager.KindAttr, mmethod.getKind().toString());
+            
+            writeCodeAttributes(mmethod, 5);
+            writeMetricAttributes(mmethod.getMetricValues(), 5);
+            end(4);
+        }
+        mclass.sortFields();
+        for (FieldMetrics mfield : mclass.getFields()) {
+            start(MetricsManager.FieldElem, 4);
+            writer.writeAttribute(MetricsManager.FqnAttr, mfield.getQualifiedName());
+            writer.writeAttribute(MetricsManager.NameAttr, value(mfield.getName()));
+            writer.writeAttribute(MetricsManager.TypeAttr, value(mfield.getType()));
+            writer.writeAttribute(MetricsManager.ModifiersAttr, String.valueOf(mfield.getModifiers()));
+            writer.writeAttribute(MetricsManager.KindAttr, mfield.getKind().toString());
+            
+            writeCodeAttributes(mfield, 5);
+            writeMetricAttributes(mfield.getMetricValues(), 5);
+            end(4);
+        }
+        end(3);
+    }
+    
+    private void writeCodeAttributes(CommonMetrics codeInfo, int depth) throws XMLStreamException {
+        empty(MetricsManager.CodeElem, depth);
+        writer.writeAttribute(MetricsManager.StartPositionAttr, String.valueOf(codeInfo.getStartPosition()));
+        writer.writeAttribute(MetricsManager.EndPositionAttr, String.valueOf(codeInfo.getEndPosition()));
+        writer.writeAttribute(MetricsManager.UpperLineNumberAttr, String.valueOf(codeInfo.getUpperLineNumber()));
+        writer.writeAttribute(MetricsManager.BottomLineNumberAttr, String.valueOf(codeInfo.getBottomLineNumber()));
+    }
+    
+    private void writeMetricAttributes(Map<String, Double> metrics, int depth) throws XMLStreamException {
+        empty(MetricsManager.MetricsElem, depth);
+        for (Map.Entry<String, Double> entry : metrics.entrySet()) {
+            double value = Metrics.round(entry.getValue().doubleValue());
+            writer.writeAttribute(entry.getKey(), String.valueOf(value));
+        }
+    }
+    
+    private void start(String name, int depth) throws XMLStreamException {
+        indent(depth);
+        writer.writeStartElement(name);
+    }
+    
+    private void empty(String name, int depth) throws XMLStreamException {
+        indent(depth);
+        writer.writeEmptyElement(name);
+    }
+    
+    private void end(int depth) throws XMLStreamException {
+        indent(depth);
+        writer.writeEndElement();
+    }
+    
+    private void indent(int depth) throws XMLStreamException {
+        writer.writeCharacters("\n");
+        for (int i = 0; i < depth; i++) {
+            writer.writeCharacters(INDENT);
+        }
+    }
+    
+    private String value(String str) {
+        return str != null ? str : "";
+    }
+}
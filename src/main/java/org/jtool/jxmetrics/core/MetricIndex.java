@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.jxmetrics.measurement.Metric;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns ordinals to the sorts of metric values.
+ * The metrics known to the registry receive the smallest ordinals, followed by their maximum values,
+ * so that the values stored in most elements fit into short arrays.
+ * Other sorts, such as those found in an imported XML file, receive ordinals when they first appear.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class MetricIndex {
+    
+    private static MetricIndex instance = new MetricIndex();
+    
+    private Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private Map<String, Integer> maxOrdinals = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[0];
+    
+    private MetricIndex() {
+        for (String name : MetricRegistry.getInstance().getMetricNames()) {
+            getOrdinal(name);
+        }
+        for (String name : MetricRegistry.getInstance().getMetricNames()) {
+            getMaxOrdinal(name);
+        }
+    }
+    
+    public static MetricIndex getInstance() {
+        return instance;
+    }
+    
+    public int getOrdinal(String sort) {
+        Integer ordinal = ordinals.get(sort);
+        if (ordinal != null) {
+            return ordinal.intValue();
+        }
+        return register(sort);
+    }
+    
+    public int findOrdinal(String sort) {
+        Integer ordinal = ordinals.get(sort);
+        if (ordinal != null) {
+            return ordinal.intValue();
+        }
+        return -1;
+    }
+    
+    public int getMaxOrdinal(String sort) {
+        Integer ordinal = maxOrdinals.get(sort);
+        if (ordinal != null) {
+            return ordinal.intValue();
+        }
+        int max = getOrdinal(Metric.MAX + sort);
+        maxOrdinals.put(sort, max);
+        return max;
+    }
+    
+    public String getName(int ordinal) {
+        return names[ordinal];
+    }
+    
+    public int size() {
+        return names.length;
+    }
+    
+    private synchronized int register(String sort) {
+        Integer ordinal = ordinals.get(sort);
+        if (ordinal != null) {
+            return ordinal.intValue();
+        }
+        
+        String[] newNames = Arrays.copyOf(names, names.length + 1);
+        newNames[names.length] = sort;
+        names = newNames;
+        ordinals.put(sort, names.length - 1);
+        return names.length - 1;
+    }
+}
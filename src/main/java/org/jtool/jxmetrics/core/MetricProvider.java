@@ -0,0 +1,36 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.jxmetrics.measurement.IMetric;
+import java.util.List;
+import java.util.Collections;
+
+/**
+ * A service provider interface that supplies metric calculators.
+ * Providers are discovered with {@code java.util.ServiceLoader}, so an implementation
+ * needs a public no-argument constructor and an entry in
+ * {@code META-INF/services/org.jtool.jxmetrics.core.MetricProvider}.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public interface MetricProvider {
+    
+    /**
+     * Returns the calculators supplied by this provider.
+     * @return the collection of the calculators
+     */
+    List<MetricCalculator<?, ?>> getCalculators();
+    
+    /**
+     * Returns the metrics supplied by this provider, which are looked up by their names.
+     * A metric returned here can be selected even if no calculator is supplied for it.
+     * @return the collection of the metrics
+     */
+    default List<IMetric> getMetrics() {
+        return Collections.emptyList();
+    }
+}
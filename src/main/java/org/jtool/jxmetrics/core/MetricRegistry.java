@@ -0,0 +1,151 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.jxmetrics.measurement.IMetric;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Registers metric calculators supplied by the providers found with {@code ServiceLoader}.
+ * The calculators at each level are scheduled so that a metric is calculated after the metrics
+ * it depends on, and cheaper metrics are calculated earlier.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class MetricRegistry {
+    
+    private static MetricRegistry instance = new MetricRegistry();
+    
+    private Map<MetricCalculator.Level, List<MetricCalculator<?, ?>>> calculators =
+            new EnumMap<>(MetricCalculator.Level.class);
+    private Set<String> metricNames = new LinkedHashSet<>();
+    private Map<String, IMetric> metrics = new HashMap<>();
+    private Map<String, Set<String>> dependencies = new HashMap<>();
+    
+    private MetricRegistry() {
+        for (MetricCalculator.Level level : MetricCalculator.Level.values()) {
+            calculators.put(level, new ArrayList<>());
+        }
+        
+        try {
+            for (MetricProvider provider : ServiceLoader.load(MetricProvider.class, getClass().getClassLoader())) {
+                for (MetricCalculator<?, ?> calculator : provider.getCalculators()) {
+                    register(calculator);
+                }
+                for (IMetric metric : provider.getMetrics()) {
+                    register(metric);
+                }
+            }
+        } catch (ServiceConfigurationError e) {
+            System.err.println("Cannot load a metric provider: " + e.getMessage());
+        }
+        
+        for (MetricCalculator.Level level : MetricCalculator.Level.values()) {
+            calculators.put(level, Collections.unmodifiableList(schedule(calculators.get(level))));
+        }
+    }
+    
+    public static MetricRegistry getInstance() {
+        return instance;
+    }
+    
+    private void register(MetricCalculator<?, ?> calculator) {
+        List<MetricCalculator<?, ?>> list = calculators.get(calculator.getLevel());
+        for (MetricCalculator<?, ?> c : list) {
+            if (c.getName().equals(calculator.getName())) {
+                System.err.println("Duplicate metric calculator: " + calculator);
+                return;
+            }
+        }
+        list.add(calculator);
+        metricNames.add(calculator.getName());
+        dependencies.computeIfAbsent(calculator.getName(), n -> new HashSet<>()).addAll(calculator.getDependencies());
+    }
+    
+    private void register(IMetric metric) {
+        if (metrics.containsKey(metric.getName())) {
+            System.err.println("Duplicate metric: " + metric.getName());
+            return;
+        }
+        metrics.put(metric.getName(), metric);
+        metricNames.add(metric.getName());
+    }
+    
+    private List<MetricCalculator<?, ?>> schedule(List<MetricCalculator<?, ?>> list) {
+        List<MetricCalculator<?, ?>> candidates = new ArrayList<>(list);
+        candidates.sort(Comparator.comparing(c -> c.getCost()));
+        
+        Set<String> names = new HashSet<>();
+        for (MetricCalculator<?, ?> calculator : candidates) {
+            names.add(calculator.getName());
+        }
+        
+        List<MetricCalculator<?, ?>> scheduled = new ArrayList<>();
+        Set<String> done = new HashSet<>();
+        while (!candidates.isEmpty()) {
+            MetricCalculator<?, ?> next = null;
+            for (MetricCalculator<?, ?> calculator : candidates) {
+                if (isReady(calculator, names, done)) {
+                    next = calculator;
+                    break;
+                }
+            }
+            if (next == null) {
+                System.err.println("Cyclic dependency among metrics: " + candidates);
+                scheduled.addAll(candidates);
+                break;
+            }
+            candidates.remove(next);
+            scheduled.add(next);
+            done.add(next.getName());
+        }
+        return scheduled;
+    }
+    
+    private boolean isReady(MetricCalculator<?, ?> calculator, Set<String> names, Set<String> done) {
+        for (String dependency : calculator.getDependencies()) {
+            if (names.contains(dependency) && !done.contains(dependency)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public List<MetricCalculator<?, ?>> getCalculators(MetricCalculator.Level level) {
+        return calculators.get(level);
+    }
+    
+    public Set<String> getMetricNames() {
+        return Collections.unmodifiableSet(metricNames);
+    }
+    
+    public IMetric getMetric(String name) {
+        return metrics.get(name);
+    }
+    
+    public boolean contains(String name) {
+        return metricNames.contains(name);
+    }
+    
+    public Set<String> getDependencies(String name) {
+        Set<String> set = dependencies.get(name);
+        if (set != null) {
+            return Collections.unmodifiableSet(set);
+        }
+        return Collections.emptySet();
+    }
+}
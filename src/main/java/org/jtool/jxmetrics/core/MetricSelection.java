@@ -0,0 +1,106 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.jxmetrics.measurement.Metric;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.Map;
+import java.util.EnumMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.ArrayDeque;
+
+/**
+ * Specifies the metrics to be calculated.
+ * A selection always contains the metrics the selected ones depend on.
+ * Selecting a metric also selects its maximum values aggregated at higher levels, and vice versa.
+ * The known metrics and their dependencies are obtained from {@code MetricRegistry}.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class MetricSelection {
+    
+    public static final MetricSelection ALL = new MetricSelection(null);
+    
+    private Set<String> names;
+    private Map<MetricCalculator.Level, List<MetricCalculator<?, ?>>> calculators =
+            new EnumMap<>(MetricCalculator.Level.class);
+    
+    private MetricSelection(Set<String> names) {
+        this.names = names;
+        
+        MetricRegistry registry = MetricRegistry.getInstance();
+        for (MetricCalculator.Level level : MetricCalculator.Level.values()) {
+            List<MetricCalculator<?, ?>> list = new ArrayList<>();
+            for (MetricCalculator<?, ?> calculator : registry.getCalculators(level)) {
+                if (names == null || names.contains(calculator.getName())) {
+                    list.add(calculator);
+                }
+            }
+            calculators.put(level, Collections.unmodifiableList(list));
+        }
+    }
+    
+    public static MetricSelection of(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return ALL;
+        }
+        
+        MetricRegistry registry = MetricRegistry.getInstance();
+        Set<String> selected = new TreeSet<>();
+        Deque<String> stack = new ArrayDeque<>();
+        for (String name : names) {
+            String base = getBaseName(name.trim());
+            if (!registry.contains(base)) {
+                throw new IllegalArgumentException("Unknown metric: " + name);
+            }
+            stack.push(base);
+        }
+        while (!stack.isEmpty()) {
+            String name = stack.pop();
+            if (selected.add(name)) {
+                for (String dependency : registry.getDependencies(name)) {
+                    stack.push(dependency);
+                }
+            }
+        }
+        return new MetricSelection(Collections.unmodifiableSet(selected));
+    }
+    
+    public static List<String> getAllMetricNames() {
+        return Metrics.getAllMetricNames();
+    }
+    
+    public boolean isAll() {
+        return names == null;
+    }
+    
+    public boolean contains(String sort) {
+        return names == null || names.contains(getBaseName(sort));
+    }
+    
+    public Set<String> getMetricNames() {
+        if (names == null) {
+            return new TreeSet<>(MetricRegistry.getInstance().getMetricNames());
+        }
+        return names;
+    }
+    
+    public List<MetricCalculator<?, ?>> getCalculators(MetricCalculator.Level level) {
+        return calculators.get(level);
+    }
+    
+    private static String getBaseName(String sort) {
+        if (sort.startsWith(Metric.MAX)) {
+            return sort.substring(Metric.MAX.length());
+        }
+        return sort;
+    }
+}
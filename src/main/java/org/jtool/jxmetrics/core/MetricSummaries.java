@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.jxmetrics.core.MetricCalculator.Level;
+import org.jtool.jxmetrics.measurement.Metric;
+import java.util.Arrays;
+
+/**
+ * Holds the summaries of metric values of elements at each level, indexed by the ordinals of the metrics.
+ * The maximum values are not summarized.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+class MetricSummaries {
+    
+    private static final MetricSummary[] EMPTY = new MetricSummary[0];
+    
+    private MetricSummary[][] summaries = new MetricSummary[Level.values().length][];
+    
+    MetricSummaries() {
+        Arrays.fill(summaries, EMPTY);
+    }
+    
+    void add(Level level, MetricValues values) {
+        MetricIndex index = MetricIndex.getInstance();
+        for (int ordinal = values.nextOrdinal(0); ordinal >= 0; ordinal = values.nextOrdinal(ordinal + 1)) {
+            if (!index.getName(ordinal).startsWith(Metric.MAX)) {
+                getOrCreate(level, ordinal).add(values.get(ordinal, 0.0));
+            }
+        }
+    }
+    
+    void merge(MetricSummaries other) {
+        for (Level level : Level.values()) {
+            MetricSummary[] list = other.summaries[level.ordinal()];
+            for (int ordinal = 0; ordinal < list.length; ordinal++) {
+                if (list[ordinal] != null) {
+                    getOrCreate(level, ordinal).merge(list[ordinal]);
+                }
+            }
+        }
+    }
+    
+    private MetricSummary getOrCreate(Level level, int ordinal) {
+        MetricSummary[] list = summaries[level.ordinal()];
+        if (ordinal >= list.length) {
+            list = Arrays.copyOf(list, Math.max(ordinal + 1, MetricIndex.getInstance().size()));
+            summaries[level.ordinal()] = list;
+        }
+        if (list[ordinal] == null) {
+            list[ordinal] = new MetricSummary();
+        }
+        return list[ordinal];
+    }
+    
+    MetricSummary get(Level level, String sort) {
+        MetricSummary[] list = summaries[level.ordinal()];
+        int ordinal = MetricIndex.getInstance().findOrdinal(sort);
+        if (ordinal >= 0 && ordinal < list.length && list[ordinal] != null) {
+            return list[ordinal];
+        }
+        return new MetricSummary();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+/**
+ * Summarizes the distribution of values of a metric over elements.
+ * The count, mean, and variance are updated with Welford's method and merged with Chan's formula,
+ * and quantiles are estimated with a sketch of bounded size.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class MetricSummary {
+    
+    public static final int DEFAULT_SKETCH_SIZE = 128;
+    
+    private long count = 0;
+    private double mean = 0;
+    private double m2 = 0;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private QuantileSketch sketch;
+    
+    public MetricSummary() {
+        this(DEFAULT_SKETCH_SIZE);
+    }
+    
+    public MetricSummary(int sketchSize) {
+        sketch = new QuantileSketch(sketchSize);
+    }
+    
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean = mean + delta / count;
+        m2 = m2 + delta * (value - mean);
+        if (count == 1) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        sketch.update(value);
+    }
+    
+    public void merge(MetricSummary other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean = mean + delta * other.count / total;
+        m2 = m2 + other.m2 + delta * delta * ((double)count * other.count / total);
+        count = total;
+        sketch.merge(other.sketch);
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public double getMean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+    
+    public double getVariance() {
+        return count > 0 ? m2 / count : Double.NaN;
+    }
+    
+    public double getSampleVariance() {
+        return count > 1 ? m2 / (count - 1) : Double.NaN;
+    }
+    
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+    
+    public double getMin() {
+        return min;
+    }
+    
+    public double getMax() {
+        return max;
+    }
+    
+    /**
+     * Returns an estimate of a quantile of the summarized values.
+     * @param q the quantile to be estimated, from {@code 0.0} to {@code 1.0}
+     * @return the estimated value, or {@code NaN} if no value was summarized
+     */
+    public double getQuantile(double q) {
+        return sketch.getQuantile(q);
+    }
+    
+    public double getMedian() {
+        return getQuantile(0.5);
+    }
+    
+    @Override
+    public String toString() {
+        return "count=" + count + " mean=" + getMean() + " sd=" + getStandardDeviation() +
+               " min=" + min + " median=" + getMedian() + " max=" + max;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Stores metric values of an element densely.
+ * The values are kept in an array indexed by the ordinals of their sorts, and a bit mask records which are present.
+ * This class also serves as a map view from the names of the sorts to the values.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class MetricValues extends AbstractMap<String, Double> {
+    
+    private static final double[] EMPTY = new double[0];
+    
+    private double[] values = EMPTY;
+    private long mask = 0;
+    private long[] extraMasks = null;
+    private boolean frozen = false;
+    
+    public boolean contains(int ordinal) {
+        if (ordinal < 0 || ordinal >= values.length) {
+            return false;
+        }
+        if (ordinal < 64) {
+            return (mask & (1L << ordinal)) != 0;
+        }
+        int index = (ordinal >>> 6) - 1;
+        return extraMasks != null && index < extraMasks.length && (extraMasks[index] & (1L << ordinal)) != 0;
+    }
+    
+    public double get(int ordinal, double defaultValue) {
+        if (contains(ordinal)) {
+            return values[ordinal];
+        }
+        return defaultValue;
+    }
+    
+    public void put(int ordinal, double value) {
+        checkModifiable();
+        if (ordinal >= values.length) {
+            values = Arrays.copyOf(values, Math.max((ordinal + 8) & ~7, values.length + (values.length >> 1)));
+        }
+        values[ordinal] = value;
+        
+        if (ordinal < 64) {
+            mask |= 1L << ordinal;
+        } else {
+            int index = (ordinal >>> 6) - 1;
+            if (extraMasks == null) {
+                extraMasks = new long[index + 1];
+            } else if (index >= extraMasks.length) {
+                extraMasks = Arrays.copyOf(extraMasks, index + 1);
+            }
+            extraMasks[index] |= 1L << ordinal;
+        }
+    }
+    
+    public void put(String sort, double value) {
+        put(MetricIndex.getInstance().getOrdinal(sort), value);
+    }
+    
+    public void putMax(String sort, double value) {
+        put(MetricIndex.getInstance().getMaxOrdinal(sort), value);
+    }
+    
+    void remove(int ordinal) {
+        checkModifiable();
+        if (ordinal < 64) {
+            mask &= ~(1L << ordinal);
+        } else {
+            extraMasks[(ordinal >>> 6) - 1] &= ~(1L << ordinal);
+        }
+    }
+    
+    void freeze() {
+        frozen = true;
+    }
+    
+    public boolean isFrozen() {
+        return frozen;
+    }
+    
+    void checkModifiable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Metric values of a frozen store cannot be modified");
+        }
+    }
+    
+    int nextOrdinal(int from) {
+        for (int ordinal = from; ordinal < values.length; ordinal++) {
+            if (ordinal < 64) {
+                long bits = mask & (-1L << ordinal);
+                if (bits != 0) {
+                    return Long.numberOfTrailingZeros(bits);
+                }
+                ordinal = 63;
+            } else if (contains(ordinal)) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+    
+    @Override
+    public int size() {
+        int size = Long.bitCount(mask);
+        if (extraMasks != null) {
+            for (long bits : extraMasks) {
+                size = size + Long.bitCount(bits);
+            }
+        }
+        return size;
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        if (key instanceof String) {
+            return contains(MetricIndex.getInstance().findOrdinal((String)key));
+        }
+        return false;
+    }
+    
+    @Override
+    public Double get(Object key) {
+        if (key instanceof String) {
+            int ordinal = MetricIndex.getInstance().findOrdinal((String)key);
+            if (contains(ordinal)) {
+                return get(ordinal, 0.0);
+            }
+        }
+        return null;
+    }
+    
+    @Override
+    public Double put(String key, Double value) {
+        Double old = get(key);
+        put(key, value.doubleValue());
+        return old;
+    }
+    
+    @Override
+    public Double remove(Object key) {
+        Double old = get(key);
+        if (old != null) {
+            remove(MetricIndex.getInstance().findOrdinal((String)key));
+        }
+        return old;
+    }
+    
+    @Override
+    public void clear() {
+        checkModifiable();
+        values = EMPTY;
+        mask = 0;
+        extraMasks = null;
+    }
+    
+    @Override
+    public Set<Map.Entry<String, Double>> entrySet() {
+        return new AbstractSet<>() {
+            
+            @Override
+            public int size() {
+                return MetricValues.this.size();
+            }
+            
+            @Override
+            public Iterator<Map.Entry<String, Double>> iterator() {
+                return new Iterator<>() {
+                    
+                    private int next = nextOrdinal(0);
+                    private int last = -1;
+                    
+                    @Override
+                    public boolean hasNext() {
+                        return next >= 0;
+                    }
+                    
+                    @Override
+                    public Map.Entry<String, Double> next() {
+                        if (next < 0) {
+                            throw new NoSuchElementException();
+                        }
+                        last = next;
+                        next = nextOrdinal(next + 1);
+                        return new SimpleImmutableEntry<>(MetricIndex.getInstance().getName(last), get(last, 0.0));
+                    }
+                    
+                    @Override
+                    public void remove() {
+                        if (last < 0) {
+                            throw new IllegalStateException();
+                        }
+                        MetricValues.this.remove(last);
+                        last = -1;
+                    }
+                };
+            }
+        };
+    }
+}
@@ -5,35 +5,17 @@
 
 package org.jtool.jxmetrics.core;
 
-import org.jtool.jxmetrics.measurement.CBO;
-import org.jtool.jxmetrics.measurement.DIT;
 import org.jtool.jxmetrics.measurement.Default;
 import org.jtool.jxmetrics.measurement.IMetric;
-import org.jtool.jxmetrics.measurement.LCOM;
-import org.jtool.jxmetrics.measurement.LOC;
-import org.jtool.jxmetrics.measurement.NOACL;
-import org.jtool.jxmetrics.measurement.NOAMD;
-import org.jtool.jxmetrics.measurement.NOC;
-import org.jtool.jxmetrics.measurement.NOECL;
-import org.jtool.jxmetrics.measurement.NOEFD;
-import org.jtool.jxmetrics.measurement.NOEMD;
-import org.jtool.jxmetrics.measurement.NOFD;
-import org.jtool.jxmetrics.measurement.NOMD;
-import org.jtool.jxmetrics.measurement.NOMDFD;
-import org.jtool.jxmetrics.measurement.NOPFD;
-import org.jtool.jxmetrics.measurement.NOPMD;
-import org.jtool.jxmetrics.measurement.NOST;
-import org.jtool.jxmetrics.measurement.RFC;
-import org.jtool.jxmetrics.measurement.WMC;
-import org.jtool.jxmetrics.measurement.ATFD;
-import org.jtool.jxmetrics.measurement.TCC;
-import org.jtool.jxmetrics.measurement.LAA;
+import org.jtool.srcmodel.JavaProject;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
-import java.util.HashMap;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Arrays;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
  * Stores metric values.
@@ -42,35 +24,38 @@ import java.util.Comparator;
  */
 public class Metrics {
     
-    public static final IMetric[] SELECTABLE_METRICS = {
-            new LOC(), new NOST(),
-            new NOMD(), new NOFD(), new NOMDFD(), new NOPMD(), new NOPFD(),
-            new NOACL(), new NOECL(), new NOAMD(), new NOEMD(), new NOEFD(),
-            new CBO(), new DIT(), new NOC(), new RFC(), new WMC(), new LCOM(),
-            new ATFD(), new TCC(), new LAA()
-        };
+    /**
+     * The metrics registered by the metric providers, in the order of their registration.
+     * @deprecated Use {@link MetricRegistry#getMetricNames()} and {@link MetricRegistry#getMetric(String)}.
+     */
+    @Deprecated
+    public static final IMetric[] SELECTABLE_METRICS = getRegisteredMetrics();
+    
     public static final IMetric DEFAULT_METRIC = new Default();
     
-    public static IMetric getMetric(String name) {
-        for (int i = 0; i < SELECTABLE_METRICS.length; i++) {
-            if (SELECTABLE_METRICS[i].getName().equals(name)) {
-                return SELECTABLE_METRICS[i];
+    private static IMetric[] getRegisteredMetrics() {
+        MetricRegistry registry = MetricRegistry.getInstance();
+        List<IMetric> metrics = new ArrayList<>();
+        for (String name : registry.getMetricNames()) {
+            IMetric metric = registry.getMetric(name);
+            if (metric != null) {
+                metrics.add(metric);
             }
         }
-        return null;
+        return metrics.toArray(new IMetric[metrics.size()]);
+    }
+    
+    public static IMetric getMetric(String name) {
+        return MetricRegistry.getInstance().getMetric(name);
     }
     
     public static List<String> getAllMetricNames() {
-        List<String> names = new ArrayList<String>();
-        for (int i = 0; i < SELECTABLE_METRICS.length; i++) {
-            names.add(SELECTABLE_METRICS[i].getName());
-        }
-        return names;
+        return new ArrayList<>(MetricRegistry.getInstance().getMetricNames());
     }
     
     protected String fqn;
     
-    protected Map<String, Double> metricValues = new HashMap<String, Double>();
+    protected MetricValues metricValues = new MetricValues();
     
     protected Metrics(String fqn) {
         this.fqn = fqn;
@@ -84,29 +69,63 @@ public class Metrics {
     }
     
     public double getMetricValueWithException(String sort) throws UnsupportedMetricsException {
-        Double value = metricValues.get(sort);
-        if (value != null) {
-            return value.doubleValue();
+        int ordinal = MetricIndex.getInstance().findOrdinal(sort);
+        if (metricValues.contains(ordinal)) {
+            return metricValues.get(ordinal, 0.0);
         }
         throw new UnsupportedMetricsException("Cannot obtain the metric value of " + sort);
     }
     
     public double getMetricValue(String sort) {
-        Double value = metricValues.get(sort);
-        if (value != null) {
-            return value.doubleValue();
-        }
-        return 0.0;
+        return metricValues.get(MetricIndex.getInstance().findOrdinal(sort), 0.0);
     }
     
     public void putMetricValue(String sort, double value) {
         metricValues.put(sort, value);
     }
     
+    @SuppressWarnings("unchecked")
+    protected <E, M extends Metrics> void calculateMetrics(MetricCalculator.Level level, JavaProject jproject,
+            E element) {
+        for (MetricCalculator<?, ?> calculator : getMetricSelection().getCalculators(level)) {
+            MetricCalculator<E, M> c = (MetricCalculator<E, M>)calculator;
+            metricValues.put(c.getOrdinal(), c.calculate(jproject, element, (M)this));
+        }
+    }
+    
+    public MetricSelection getMetricSelection() {
+        return MetricSelection.ALL;
+    }
+    
+    public boolean isSelected(String sort) {
+        return getMetricSelection().contains(sort);
+    }
+    
+    void freeze() {
+        metricValues.freeze();
+    }
+    
+    public boolean isFrozen() {
+        return metricValues.isFrozen();
+    }
+    
+    static <T> List<T> toFrozenList(List<T> list) {
+        @SuppressWarnings("unchecked")
+        T[] elements = (T[])list.toArray();
+        return Collections.unmodifiableList(Arrays.asList(elements));
+    }
+    
     public Map<String, Double> getMetricValues() {
         return metricValues;
     }
     
+    public static double round(double value) {
+        if (value == Math.rint(value) || Double.isNaN(value) || Double.isInfinite(value)) {
+            return value;
+        }
+        return new BigDecimal(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+    
     public void sortNames(List<String> names) {
         Collections.sort(names, new Comparator<>() {
             public int compare(String name1, String name2) {
@@ -9,20 +9,32 @@ import org.jtool.jxplatform.builder.ModelBuilderBatch;
 import org.jtool.jxplatform.builder.ConsoleProgressMonitor;
 import org.jtool.srcmodel.JavaProject;
 import org.jtool.srcmodel.JavaPackage;
+import org.jtool.srcmodel.JavaClass;
+import org.jtool.srcmodel.JavaMethod;
 import org.jtool.jxmetrics.Logger;
-import org.jtool.jxmetrics.XMLWriter;
-import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Paths;
 import java.nio.file.Path;
 import java.nio.file.Files;
 import java.util.List;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Calculates the metric values related to elements within a project.
@@ -33,6 +45,10 @@ public class MetricsManager {
     
     public static final String JXMETRICS_PREFIX = "jxm";
     public static final String XML_FILENAME_EXT = ".xml";
+    public static final String GZIP_FILENAME_EXT = ".gz";
+    public static final String JSONL_FILENAME_EXT = ".jsonl";
+    public static final String STDOUT = "-";
+    public static final int DEFAULT_DEFLATE_LEVEL = 6;
     public static final String TIME_BOILERPLATE = "<time>";
     
     public static final String ProjectsElem = "projects";
@@ -72,36 +88,186 @@ public class MetricsManager {
     }
     
     public MetricsStore calculate(String name, String target, boolean logging) {
+        return calculate(name, target, logging, 1);
+    }
+    
+    public MetricsStore calculate(String name, String target, boolean logging, int threads) {
+        return calculate(name, target, logging, threads, MetricSelection.ALL);
+    }
+    
+    public MetricsStore calculate(String name, String target, boolean logging, int threads, List<String> metrics) {
+        return calculate(name, target, logging, threads, MetricSelection.of(metrics));
+    }
+    
+    /**
+     * Calculates metric values.
+     * With more than one thread, projects are calculated concurrently and the classes of each project are
+     * calculated as separate tasks on the same pool, while the projects are stored in the order of the target.
+     * The caches built for a project are released after the project is calculated.
+     * The source code model of all the projects is kept until {@link #unbuild()} is called.
+     * @param name the name of the target
+     * @param target the path of the directory containing the target projects
+     * @param logging {@code true} if the progress is logged, otherwise {@code false}
+     * @param threads the number of threads calculating the metric values of classes
+     * @param selection the metrics to be calculated
+     * @return the store containing the calculated metric values
+     */
+    public MetricsStore calculate(String name, String target, boolean logging, int threads,
+            MetricSelection selection) {
         MetricsStore mstore = new MetricsStore(name, target);
         builder = new ModelBuilderBatch(false, false);
         builder.setConsoleVisible(logging);
         
         List<JavaProject> jprojects = builder.build(name, target);
-        List<JavaPackage> jpackages = jprojects.stream()
-                .flatMap(pj -> pj.getPackages().stream())
-                .filter(jp -> jp.isInProject())
-                .collect(Collectors.toList());
-        
-        int size = jpackages.size();
+        int size = 0;
+        for (JavaProject jproject : jprojects) {
+            size = size + getPackages(jproject).size();
+        }
         Logger.getInstance().printLog("** Ready to calculate the metric values of " + size + " packages");
         ConsoleProgressMonitor pm = new ConsoleProgressMonitor();
         pm.begin(size);
-        for (JavaProject jproject : jprojects) {
-            ProjectMetrics mproject =  new ProjectMetrics(jproject);
-            for (JavaPackage jpackage : jproject.getPackages()) {
-                if (jpackage.isInProject()) {
-                    PackageMetrics mpackage = new PackageMetrics(jproject, jpackage, mproject);
-                    mproject.addPackage(mpackage);
-                    pm.work(1);
+        
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            if (pool == null) {
+                for (JavaProject jproject : jprojects) {
+                    mstore.add(calculate(jproject, selection, mstore.getSymbolTable(), null, pm));
+                }
+            } else {
+                List<ForkJoinTask<ProjectMetrics>> results = new ArrayList<>();
+                for (JavaProject jproject : jprojects) {
+                    results.add(pool.submit(() -> calculate(jproject, selection, mstore.getSymbolTable(), pool, pm)));
+                }
+                for (ForkJoinTask<ProjectMetrics> result : results) {
+                    mstore.add(getResult(result));
                 }
             }
-            mproject.collect(jproject);
-            mstore.add(mproject);
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
         }
+        clearCaches();
         pm.done();
         return mstore;
     }
     
+    private List<JavaPackage> getPackages(JavaProject jproject) {
+        return jproject.getPackages().stream()
+                .filter(jp -> jp.isInProject())
+                .collect(Collectors.toList());
+    }
+    
+    private ProjectMetrics calculate(JavaProject jproject, MetricSelection selection, SymbolTable symbolTable,
+            ForkJoinPool pool, ConsoleProgressMonitor pm) {
+        ProjectMetrics mproject =  new ProjectMetrics(jproject, selection, symbolTable);
+        calculate(mproject, jproject, getPackages(jproject), pool, pm);
+        mproject.collect(jproject);
+        
+        AccessorIndex.remove(jproject);
+        AfferentClosure.remove(jproject);
+        FieldAccessIndex.remove(jproject);
+        return mproject;
+    }
+    
+    private void calculate(ProjectMetrics mproject, JavaProject jproject, List<JavaPackage> jpackages,
+            ForkJoinPool pool, ConsoleProgressMonitor pm) {
+        if (pool == null) {
+            for (JavaPackage jpackage : jpackages) {
+                PackageMetrics mpackage = new PackageMetrics(jproject, jpackage, mproject);
+                mproject.addPackage(mpackage);
+                work(pm);
+            }
+            return;
+        }
+        
+        collectRelations(jproject);
+        
+        List<PackageTask> ptasks = new ArrayList<>();
+        List<ClassTask> classTasks = new ArrayList<>();
+        for (JavaPackage jpackage : jpackages) {
+            PackageTask ptask = new PackageTask(jpackage, new PackageMetrics(jpackage.getName(), mproject));
+            for (JavaClass jclass : new ArrayList<>(jpackage.getClasses())) {
+                ClassTask ctask = new ClassTask(jproject, jclass, ptask.mpackage);
+                ptask.classTasks.add(ctask);
+                classTasks.add(ctask);
+            }
+            ptasks.add(ptask);
+        }
+        
+        classTasks.sort(Comparator.comparingLong((ClassTask ctask) -> ctask.cost).reversed());
+        for (ClassTask ctask : classTasks) {
+            ctask.result = pool.submit(() -> new ClassMetrics(ctask.jproject, ctask.jclass, ctask.mpackage));
+        }
+        
+        for (PackageTask ptask : ptasks) {
+            for (ClassTask ctask : ptask.classTasks) {
+                ptask.mpackage.addClass(getResult(ctask.result));
+            }
+            ptask.mpackage.collect(ptask.jpackage);
+            mproject.addPackage(ptask.mpackage);
+            work(pm);
+        }
+    }
+    
+    /**
+     * Collects the relationships among the classes and methods of a project on the current thread.
+     * The source code model collects them lazily without synchronization when they are first requested,
+     * so they must be ready before the classes are calculated concurrently.
+     * @param jproject the project
+     */
+    private void collectRelations(JavaProject jproject) {
+        for (JavaPackage jpackage : jproject.getPackages()) {
+            jpackage.getAfferentJavaPackages();
+            jpackage.getEfferentJavaPackages();
+        }
+        for (JavaClass jclass : jproject.getClasses()) {
+            jclass.getAfferentClasses();
+            jclass.getEfferentClasses();
+            jclass.getAfferentClassesInProject();
+            jclass.getEfferentClassesInProject();
+            jclass.getAllSuperClasses();
+            jclass.getChildren();
+            for (JavaMethod jmethod : jclass.getMethods()) {
+                jmethod.getAccessedFields();
+                jmethod.getAccessedFieldsInProject();
+                jmethod.getCalledMethods();
+                jmethod.getCalledMethodsInProject();
+                jmethod.getCallingMethods();
+            }
+        }
+    }
+    
+    private void work(ConsoleProgressMonitor pm) {
+        synchronized (pm) {
+            pm.work(1);
+        }
+    }
+    
+    private <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calculating metric values", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IllegalStateException("Failed to calculate metric values", cause);
+        }
+    }
+    
+    private void clearCaches() {
+        StatementStore.getInstance().clear();
+        AccessorIndex.clear();
+        AfferentClosure.clear();
+        FieldAccessIndex.clear();
+    }
+    
     public void unbuild() {
         if (builder != null) {
             builder.unbuild();
@@ -109,6 +275,16 @@ public class MetricsManager {
     }
     
     public void exportXML(MetricsStore mstore, String output) {
+        exportXML(mstore, output, output.endsWith(GZIP_FILENAME_EXT) ? DEFAULT_DEFLATE_LEVEL : -1);
+    }
+    
+    /**
+     * Exports metric values into an XML file.
+     * @param mstore the store containing the metric values
+     * @param output the name of the output file
+     * @param deflateLevel the level of compression from {@code 0} to {@code 9}, or {@code -1} for no compression
+     */
+    public void exportXML(MetricsStore mstore, String output, int deflateLevel) {
         if (mstore.getProjectMetrics().size() == 0) {
             System.err.print("No project");
             return;
@@ -123,16 +299,19 @@ public class MetricsManager {
         
         try {
             Logger.getInstance().printLog("** Ready to export data into " + output);
-            MetricDataExporter exporter = new MetricDataExporter();
-            Document doc = exporter.getDocument(mstore);
-            XMLWriter.write(file, doc);
+            MetricDataWriter writer = new MetricDataWriter();
+            writer.write(mstore, file.toPath(), deflateLevel);
             Logger.getInstance().printLog("-Exported ");
-        } catch (ParserConfigurationException e) {
+        } catch (IOException | XMLStreamException e) {
             System.err.println("-Failed to export: " + e.getMessage() + ".");
         }
     }
     
     public MetricsStore importXML(String filename) {
+        return importXML(filename, false);
+    }
+    
+    public MetricsStore importXML(String filename, boolean lazy) {
         if (filename == null || filename.length() == 0) {
             System.err.println("No such file: " + filename);
             return null;
@@ -142,15 +321,41 @@ public class MetricsManager {
         if (!Files.exists(path)) {
             System.err.println("No such file: " + filename);
         }
-        return importXML(path.toFile());
+        return importXML(path.toFile(), lazy);
     }
     
     public MetricsStore importXML(File file) {
-        if (file.canRead() && file.getPath().endsWith(XML_FILENAME_EXT)) {
+        return importXML(file, false);
+    }
+    
+    /**
+     * Imports metric values from an XML file.
+     * In the lazy mode, the summaries of packages and projects are built without loading the methods and fields,
+     * while {@link ClassMetrics#getMethods()}, {@link ClassMetrics#getFields()}, and {@link MetricsStore#freeze()}
+     * load them from the file.
+     * A compressed file is always imported eagerly, since its members cannot be read again by their byte ranges.
+     * @param file the XML file
+     * @param lazy {@code true} if the methods and fields of a class are loaded when they are first requested,
+     *             which is ignored for a compressed file
+     * @return the store containing the imported metric values
+     */
+    public MetricsStore importXML(File file, boolean lazy) {
+        if (file.canRead() && (file.getPath().endsWith(XML_FILENAME_EXT) ||
+                file.getPath().endsWith(XML_FILENAME_EXT + GZIP_FILENAME_EXT))) {
             SAXParserFactory factory = SAXParserFactory.newInstance();
             try {
                 SAXParser parser = factory.newSAXParser();
-                MetricDataImporter importer = new MetricDataImporter();
+                if (isCompressed(file)) {
+                    if (lazy) {
+                        Logger.getInstance().printLog("-Importing the compressed file eagerly: " + file.getPath());
+                    }
+                    MetricDataImporter importer = new MetricDataImporter(file, false);
+                    try (InputStream in = new GZIPInputStream(new FileInputStream(file), 1 << 16)) {
+                        parser.parse(new BufferedInputStream(in, 1 << 16), importer);
+                    }
+                    return importer.getJxmProjects();
+                }
+                MetricDataImporter importer = new MetricDataImporter(file, lazy);
                 parser.parse(file, importer);
                 return importer.getJxmProjects();
             } catch (ParserConfigurationException | SAXException | IOException e) {
@@ -159,4 +364,142 @@ public class MetricsManager {
         }
         return null;
     }
+    
+    private boolean isCompressed(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return in.read() == 0x1f && in.read() == 0x8b;
+        }
+    }
+    
+    public void exportJsonLines(MetricsStore mstore, String output) {
+        exportJsonLines(mstore, output, output.endsWith(GZIP_FILENAME_EXT) ? DEFAULT_DEFLATE_LEVEL : -1);
+    }
+    
+    /**
+     * Exports metric values into a JSON Lines file.
+     * @param mstore the store containing the metric values
+     * @param output the name of the output file, or {@code "-"} for the standard output
+     * @param deflateLevel the level of compression from {@code 0} to {@code 9}, or {@code -1} for no compression
+     */
+    public void exportJsonLines(MetricsStore mstore, String output, int deflateLevel) {
+        if (output.equals(STDOUT)) {
+            exportJsonLines(mstore, System.out);
+            return;
+        }
+        
+        export(mstore, output, (m, path) -> {
+            try (OutputStream out = MetricDataWriter.open(Files.newOutputStream(path), deflateLevel)) {
+                MetricDataJsonWriter writer = new MetricDataJsonWriter();
+                writer.write(m, out);
+            }
+        });
+    }
+    
+    /**
+     * Exports metric values as JSON Lines into a stream, which is flushed but not closed.
+     * @param mstore the store containing the metric values
+     * @param out the output stream
+     */
+    public void exportJsonLines(MetricsStore mstore, OutputStream out) {
+        if (mstore.getProjectMetrics().size() == 0) {
+            System.err.print("No project");
+            return;
+        }
+        
+        try {
+            MetricDataJsonWriter writer = new MetricDataJsonWriter();
+            writer.write(mstore, out);
+        } catch (IOException e) {
+            System.err.println("-Failed to export: " + e.getMessage() + ".");
+        }
+    }
+    
+    public void exportBinary(MetricsStore mstore, String output) {
+        export(mstore, output, BinaryMetricsStore::write);
+    }
+    
+    public MetricsStore importBinary(String filename) {
+        return importFile(filename, BinaryMetricsStore::read);
+    }
+    
+    public void exportColumnar(MetricsStore mstore, String output) {
+        export(mstore, output, ColumnarMetricsFile::write);
+    }
+    
+    public ColumnarMetricsFile openColumnar(String filename) {
+        return importFile(filename, ColumnarMetricsFile::open);
+    }
+    
+    public void exportMapped(MetricsStore mstore, String output) {
+        export(mstore, output, MappedMetricsStore::write);
+    }
+    
+    public MetricsStore importMapped(String filename) {
+        return importFile(filename, MappedMetricsStore::open);
+    }
+    
+    private interface StoreWriter {
+        void write(MetricsStore mstore, Path path) throws IOException;
+    }
+    
+    private interface StoreReader<T> {
+        T read(Path path) throws IOException;
+    }
+    
+    private void export(MetricsStore mstore, String output, StoreWriter writer) {
+        if (mstore.getProjectMetrics().size() == 0) {
+            System.err.print("No project");
+            return;
+        }
+        
+        long time = mstore.getTimeAsLong();
+        output = output.replace(TIME_BOILERPLATE, String.valueOf(time));
+        try {
+            Logger.getInstance().printLog("** Ready to export data into " + output);
+            writer.write(mstore, Paths.get(output));
+            Logger.getInstance().printLog("-Exported ");
+        } catch (IOException e) {
+            System.err.println("-Failed to export: " + e.getMessage() + ".");
+        }
+    }
+    
+    private <T> T importFile(String filename, StoreReader<T> reader) {
+        if (filename == null || filename.length() == 0 || !Files.exists(Paths.get(filename))) {
+            System.err.println("No such file: " + filename);
+            return null;
+        }
+        
+        try {
+            return reader.read(Paths.get(filename));
+        } catch (IOException e) {
+            System.err.println("-Failed to import: " + e.getMessage() + ".");
+        }
+        return null;
+    }
+    
+    private static class PackageTask {
+        JavaPackage jpackage;
+        PackageMetrics mpackage;
+        List<ClassTask> classTasks = new ArrayList<>();
+        
+        PackageTask(JavaPackage jpackage, PackageMetrics mpackage) {
+            this.jpackage = jpackage;
+            this.mpackage = mpackage;
+        }
+    }
+    
+    private static class ClassTask {
+        JavaProject jproject;
+        JavaClass jclass;
+        PackageMetrics mpackage;
+        long cost;
+        ForkJoinTask<ClassMetrics> result;
+        
+        ClassTask(JavaProject jproject, JavaClass jclass, PackageMetrics mpackage) {
+            this.jproject = jproject;
+            this.jclass = jclass;
+            this.mpackage = mpackage;
+            this.cost = jclass.getCodeRange().getEndPosition() - jclass.getCodeRange().getStartPosition();
+        }
+    }
 }
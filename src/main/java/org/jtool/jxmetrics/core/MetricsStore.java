@@ -22,6 +22,8 @@ public class MetricsStore {
     private ZonedDateTime time;
     
     private List<ProjectMetrics> mprojects = new ArrayList<>();
+    private SymbolTable symbolTable = new SymbolTable();
+    private volatile boolean frozen = false;
     
     public MetricsStore(String name, String target) {
         this.name = name;
@@ -59,11 +61,46 @@ public class MetricsStore {
         return TimeInfo.getFormatedDate(time);
     }
     
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+    
     void add(ProjectMetrics mproject) {
         mprojects.add(mproject);
     }
     
+    /**
+     * Freezes this store so that it can be shared among threads.
+     * All the lists of elements are sorted once and replaced with unmodifiable ones,
+     * and any attempt to modify the elements or their metric values throws {@code UnsupportedOperationException}.
+     * Other threads must obtain the returned store after this method has returned.
+     * @return this store
+     */
+    public synchronized MetricsStore freeze() {
+        if (!frozen) {
+            for (ProjectMetrics mproject : mprojects) {
+                mproject.freeze();
+            }
+            mprojects = Metrics.toFrozenList(mprojects);
+            frozen = true;
+        }
+        return this;
+    }
+    
+    public boolean isFrozen() {
+        return frozen;
+    }
+    
     public List<ProjectMetrics> getProjectMetrics() {
         return mprojects;
     }
+    
+    /**
+     * Converts this store into a columnar store.
+     * The attributes and metric values of the elements are copied, so this store is left unchanged.
+     * @return the columnar store
+     */
+    public ColumnarMetricsStore toColumnar() {
+        return new ColumnarMetricsStore(this);
+    }
 }
@@ -0,0 +1,253 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import java.io.IOException;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.ArrayList;
+
+/**
+ * Writes and rebuilds the tree of elements within a store in the order shared by the binary file formats.
+ * A format supplies how integers and strings are encoded, and how the code range and metric values
+ * of each element are kept, while this class decides which attributes are written and in what order.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+class MetricsTreeCodec {
+    
+    /**
+     * Encodes the attributes of elements.
+     */
+    interface Output {
+        void writeInt(int value) throws IOException;
+        void writeString(String str) throws IOException;
+        void writeMetrics(Metrics metrics) throws IOException;
+    }
+    
+    /**
+     * Decodes the attributes of elements in the order they were encoded.
+     */
+    interface Input {
+        int readInt() throws IOException;
+        String readString() throws IOException;
+        void readMetrics(Metrics metrics) throws IOException;
+    }
+    
+    /**
+     * Receives each element visited by {@link MetricsTreeCodec#walk}.
+     */
+    interface Visitor {
+        void visit(Metrics metrics) throws IOException;
+    }
+    
+    private MetricsTreeCodec() {
+    }
+    
+    /**
+     * Checks a condition that holds for any well-formed file.
+     * @param valid the condition
+     * @throws IOException if the condition does not hold
+     */
+    static void check(boolean valid) throws IOException {
+        if (!valid) {
+            throw new IOException("Corrupt binary metrics file");
+        }
+    }
+    
+    /**
+     * Visits all elements within a store in the order in which {@link Output#writeMetrics} is called.
+     * @param mstore the store containing the elements
+     * @param visitor the visitor receiving each element
+     */
+    static void walk(MetricsStore mstore, Visitor visitor) throws IOException {
+        for (ProjectMetrics mproject : mstore.getProjectMetrics()) {
+            visitor.visit(mproject);
+            for (PackageMetrics mpackage : mproject.getPackages()) {
+                visitor.visit(mpackage);
+                for (ClassMetrics mclass : mpackage.getClasses()) {
+                    visitor.visit(mclass);
+                    for (MethodMetrics mmethod : mclass.getMethods()) {
+                        visitor.visit(mmethod);
+                    }
+                    for (FieldMetrics mfield : mclass.getFields()) {
+                        visitor.visit(mfield);
+                    }
+                }
+            }
+        }
+    }
+    
+    static void write(MetricsStore mstore, Output out) throws IOException {
+        out.writeString(mstore.getName());
+        out.writeString(mstore.getTarget());
+        out.writeString(mstore.getTimeAsString());
+        
+        out.writeInt(mstore.getProjectMetrics().size());
+        for (ProjectMetrics mproject : mstore.getProjectMetrics()) {
+            out.writeString(mproject.getName());
+            out.writeString(mproject.getPath());
+            out.writeMetrics(mproject);
+            
+            out.writeInt(mproject.getPackages().size());
+            for (PackageMetrics mpackage : mproject.getPackages()) {
+                out.writeString(mpackage.getName());
+                writeStrings(out, mpackage.getAfferentPackages());
+                writeStrings(out, mpackage.getEfferentPackages());
+                out.writeMetrics(mpackage);
+                
+                out.writeInt(mpackage.getClasses().size());
+                for (ClassMetrics mclass : mpackage.getClasses()) {
+                    writeClass(out, mclass);
+                }
+            }
+        }
+    }
+    
+    private static void writeClass(Output out, ClassMetrics mclass) throws IOException {
+        out.writeString(mclass.getQualifiedName());
+        out.writeString(mclass.getName());
+        out.writeInt(mclass.getModifiers());
+        out.writeString(mclass.getKind().toString());
+        out.writeString(mclass.getPath());
+        out.writeString(mclass.getSuperClassName());
+        writeStrings(out, mclass.getSuperInterfaceNames());
+        writeStrings(out, mclass.getAfferentClasses());
+        writeStrings(out, mclass.getEfferentClasses());
+        out.writeMetrics(mclass);
+        
+        out.writeInt(mclass.getMethods().size());
+        for (MethodMetrics mmethod : mclass.getMethods()) {
+            writeMember(out, mmethod, mmethod.getKind().toString());
+        }
+        out.writeInt(mclass.getFields().size());
+        for (FieldMetrics mfield : mclass.getFields()) {
+            writeMember(out, mfield, mfield.getKind().toString());
+        }
+    }
+    
+    private static void writeMember(Output out, CommonMetrics mmember, String kind) throws IOException {
+        out.writeString(mmember.getQualifiedName());
+        out.writeString(mmember.getName());
+        out.writeString(mmember.getType());
+        out.writeInt(mmember.getModifiers());
+        out.writeString(kind);
+        out.writeMetrics(mmember);
+    }
+    
+    private static void writeStrings(Output out, List<String> strs) throws IOException {
+        out.writeInt(strs.size());
+        for (String str : strs) {
+            out.writeString(str);
+        }
+    }
+    
+    static MetricsStore read(Input in) throws IOException {
+        String storeName = in.readString();
+        String target = in.readString();
+        String time = in.readString();
+        check(time != null);
+        MetricsStore mstore;
+        try {
+            mstore = new MetricsStore(storeName, target, time);
+        } catch (DateTimeParseException e) {
+            throw new IOException("Corrupt binary metrics file", e);
+        }
+        
+        int projectSize = readCount(in);
+        for (int i = 0; i < projectSize; i++) {
+            ProjectMetrics mproject = new ProjectMetrics(in.readString(), in.readString(), mstore.getSymbolTable());
+            in.readMetrics(mproject);
+            mstore.add(mproject);
+            
+            int packageSize = readCount(in);
+            for (int j = 0; j < packageSize; j++) {
+                PackageMetrics mpackage = new PackageMetrics(in.readString(), mproject);
+                for (String name : readStrings(in)) {
+                    mpackage.addAfferentPackage(name);
+                }
+                for (String name : readStrings(in)) {
+                    mpackage.addEfferentPackage(name);
+                }
+                in.readMetrics(mpackage);
+                mproject.addPackage(mpackage);
+                
+                int classSize = readCount(in);
+                for (int k = 0; k < classSize; k++) {
+                    mpackage.addClass(readClass(in, mpackage));
+                }
+            }
+        }
+        
+        mstore.getProjectMetrics().forEach(p -> p.collectMetricsAfterXMLImport());
+        return mstore;
+    }
+    
+    private static ClassMetrics readClass(Input in, PackageMetrics mpackage) throws IOException {
+        String fqn = in.readString();
+        String name = in.readString();
+        int modifiers = in.readInt();
+        String kind = readKind(in, ClassMetrics.Kind.values());
+        String path = in.readString();
+        ClassMetrics mclass = new ClassMetrics(fqn, name, modifiers, kind, path, mpackage);
+        
+        String superClassName = in.readString();
+        if (superClassName != null) {
+            mclass.setSuperClass(superClassName);
+        }
+        for (String str : readStrings(in)) {
+            mclass.addSuperInterface(str);
+        }
+        for (String str : readStrings(in)) {
+            mclass.addAfferentClass(str);
+        }
+        for (String str : readStrings(in)) {
+            mclass.addEfferentClass(str);
+        }
+        in.readMetrics(mclass);
+        
+        int methodSize = readCount(in);
+        for (int i = 0; i < methodSize; i++) {
+            MethodMetrics mmethod = new MethodMetrics(in.readString(), in.readString(), in.readString(),
+                    in.readInt(), readKind(in, MethodMetrics.Kind.values()), mclass);
+            in.readMetrics(mmethod);
+            mclass.addMethod(mmethod);
+        }
+        int fieldSize = readCount(in);
+        for (int i = 0; i < fieldSize; i++) {
+            FieldMetrics mfield = new FieldMetrics(in.readString(), in.readString(), in.readString(),
+                    in.readInt(), readKind(in, FieldMetrics.Kind.values()), mclass);
+            in.readMetrics(mfield);
+            mclass.addField(mfield);
+        }
+        return mclass;
+    }
+    
+    private static List<String> readStrings(Input in) throws IOException {
+        int size = readCount(in);
+        List<String> strs = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            strs.add(in.readString());
+        }
+        return strs;
+    }
+    
+    private static int readCount(Input in) throws IOException {
+        int count = in.readInt();
+        check(count >= 0);
+        return count;
+    }
+    
+    private static String readKind(Input in, Enum<?>[] kinds) throws IOException {
+        String kind = in.readString();
+        for (Enum<?> k : kinds) {
+            if (k.name().equals(kind)) {
+                return kind;
+            }
+        }
+        throw new IOException("Corrupt binary metrics file");
+    }
+}
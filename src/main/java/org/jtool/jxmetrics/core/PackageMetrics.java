@@ -23,9 +23,6 @@ import org.jtool.jxmetrics.measurement.NOFD;
 import org.jtool.jxmetrics.measurement.NOPMD;
 import org.jtool.jxmetrics.measurement.NOPFD;
 import org.jtool.jxmetrics.measurement.NOMDFD;
-import org.jtool.jxmetrics.measurement.NOAPG;
-import org.jtool.jxmetrics.measurement.NOEPG;
-import org.jtool.jxmetrics.measurement.Metric;
 import org.jtool.srcmodel.JavaProject;
 import org.jtool.srcmodel.JavaPackage;
 import org.jtool.srcmodel.JavaClass;
@@ -33,8 +30,6 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 /**
  * Stores metric information on a package.
@@ -46,20 +41,27 @@ public class PackageMetrics extends Metrics {
     public static final String Id = "PackageMetrics";
     
     private ProjectMetrics projectMetrics;
+    private SymbolTable symbolTable;
     
     protected List<ClassMetrics> classes = new ArrayList<>();
-    protected List<String> afferentPackageNames = new ArrayList<>();
-    protected List<String> efferentPackageNames = new ArrayList<>();
+    protected SymbolList afferentPackages = new SymbolList();
+    protected SymbolList efferentPackages = new SymbolList();
+    
+    private MetricAggregate aggregate;
+    private MetricSummaries summaries = new MetricSummaries();
+    private MetricSummaries skippedMembers;
     
     public PackageMetrics(JavaProject jproject, JavaPackage jpackage, ProjectMetrics mproject) {
-        super(jpackage.getName());
+        this(jpackage.getName(), mproject);
         
-        projectMetrics = mproject;
         for (JavaClass jclass : new ArrayList<>(jpackage.getClasses())) {
             ClassMetrics mclass = new ClassMetrics(jproject, jclass, this);
             classes.add(mclass);
         }
-        
+        collect(jpackage);
+    }
+    
+    void collect(JavaPackage jpackage) {
         for (JavaPackage jp : jpackage.getAfferentJavaPackages()) {
             addAfferentPackage(jp.getName());
         }
@@ -68,10 +70,13 @@ public class PackageMetrics extends Metrics {
         }
         
         ClassMetrics.sort(classes);
-        sortNames(afferentPackageNames);
-        sortNames(efferentPackageNames);
+        afferentPackages.normalize();
+        efferentPackages.normalize();
+        aggregate = null;
+        getAggregate();
         collectMetrics(jpackage);
         collectMetricsMax();
+        aggregate = null;
     }
     
     public String getName() {
@@ -87,6 +92,14 @@ public class PackageMetrics extends Metrics {
         return projectMetrics;
     }
     
+    @Override
+    public MetricSelection getMetricSelection() {
+        if (projectMetrics != null) {
+            return projectMetrics.getMetricSelection();
+        }
+        return MetricSelection.ALL;
+    }
+    
     protected void addClass(ClassMetrics mclass) {
         classes.add(mclass);
     }
@@ -96,53 +109,40 @@ public class PackageMetrics extends Metrics {
     }
     
     public void sortClasses() {
+        if (isFrozen()) {
+            return;
+        }
         ClassMetrics.sort(classes);
     }
     
-    protected void addAfferentPackage(String name) {
-        if (!afferentPackageNames.contains(name)) {
-            afferentPackageNames.add(name);
+    public SymbolTable getSymbolTable() {
+        if (projectMetrics != null) {
+            return projectMetrics.getSymbolTable();
         }
+        if (symbolTable == null) {
+            symbolTable = new SymbolTable();
+        }
+        return symbolTable;
+    }
+    
+    protected void addAfferentPackage(String name) {
+        afferentPackages.add(getSymbolTable().getId(name));
     }
     
     public List<String> getAfferentPackages() {
-        return afferentPackageNames;
+        return afferentPackages.getNames(getSymbolTable());
     }
     
     protected void addEfferentPackage(String name) {
-        if (!efferentPackageNames.contains(name)) {
-            efferentPackageNames.add(name);
-        }
+        efferentPackages.add(getSymbolTable().getId(name));
     }
     
     public List<String> getEfferentPackages() {
-        return efferentPackageNames;
+        return efferentPackages.getNames(getSymbolTable());
     }
     
     protected void collectMetrics(JavaPackage jpackage) {
-        putSumMetricValue(LOC.Name);
-        putSumMetricValue(NOST.Name);
-        
-        putMetricValue(NOC.Name, new NOCL().calculate(jpackage));
-        
-        putSumMetricValue(NOMD.Name);
-        putSumMetricValue(NOFD.Name);
-        putSumMetricValue(NOMDFD.Name);
-        putSumMetricValue(NOPMD.Name);
-        putSumMetricValue(NOPFD.Name);
-        
-        putMetricValue(NOAPG.Name, new NOAPG().calculate(jpackage));
-        putMetricValue(NOEPG.Name, new NOEPG().calculate(jpackage));
-        
-        putSumMetricValue(NOACL.Name);
-        putSumMetricValue(NOECL.Name);
-        
-        putSumMetricValue(CBO.Name);
-        putSumMetricValue(DIT.Name);
-        putSumMetricValue(NOC.Name);
-        putSumMetricValue(RFC.Name);
-        putSumMetricValue(WMC.Name);
-        putSumMetricValue(LCOM.Name);
+        calculateMetrics(MetricCalculator.Level.PACKAGE, projectMetrics.getJavaProject(), jpackage);
     }
     
     protected void collectMetricsMax() {
@@ -170,28 +170,88 @@ public class PackageMetrics extends Metrics {
         putMaxMetricValue(TCC.Name);
     }
     
-    private void putSumMetricValue(String sort) {
-        metricValues.put(sort, sum(sort));
+    private void putMaxMetricValue(String sort) {
+        if (isSelected(sort)) {
+            metricValues.putMax(sort, max(sort));
+        }
     }
     
-    private void putMaxMetricValue(String sort) {
-        metricValues.put(Metric.MAX + sort, max(sort));
+    private MetricAggregate getAggregate() {
+        if (aggregate == null) {
+            aggregate = new MetricAggregate();
+            summaries = new MetricSummaries();
+            for (ClassMetrics mclass : classes) {
+                aggregate.add(mclass.metricValues);
+                summaries.add(MetricCalculator.Level.CLASS, mclass.metricValues);
+                if (!mclass.hasSkippedMembers()) {
+                    for (MethodMetrics mmethod : mclass.getMethods()) {
+                        summaries.add(MetricCalculator.Level.METHOD, mmethod.metricValues);
+                    }
+                    for (FieldMetrics mfield : mclass.getFields()) {
+                        summaries.add(MetricCalculator.Level.FIELD, mfield.metricValues);
+                    }
+                }
+            }
+            if (skippedMembers != null) {
+                summaries.merge(skippedMembers);
+            }
+        }
+        return aggregate;
     }
     
-    protected Double sum(String sort) {
-        double value = 0;
-        for (ClassMetrics mclass : classes) {
-            value = value + mclass.getMetricValue(sort);
+    /**
+     * Adds the metric values of a method or a field whose element was skipped by a lazy import,
+     * so that the summaries of this package do not load the members of its classes.
+     * @param level the level of the element, which is {@code METHOD} or {@code FIELD}
+     * @param values the metric values of the element
+     */
+    void addSkippedMember(MetricCalculator.Level level, MetricValues values) {
+        if (skippedMembers == null) {
+            skippedMembers = new MetricSummaries();
         }
-        return new BigDecimal(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+        skippedMembers.add(level, values);
     }
     
-    protected Double max(String sort) {
-        double value = 0;
+    MetricSummaries getSummaries() {
+        if (summaries == null) {
+            getAggregate();
+            aggregate = null;
+        }
+        return summaries;
+    }
+    
+    /**
+     * Returns the summary of the values of a metric over the elements at a level in this package.
+     * @param level the level of the elements, which is {@code CLASS}, {@code METHOD}, or {@code FIELD}
+     * @param sort the name of the metric
+     * @return the summary, which is empty if no value was found
+     */
+    public MetricSummary getSummary(MetricCalculator.Level level, String sort) {
+        return getSummaries().get(level, sort);
+    }
+    
+    protected double sum(String sort) {
+        return getAggregate().getSum(sort);
+    }
+    
+    protected double max(String sort) {
+        return getAggregate().getMax(sort);
+    }
+    
+    @Override
+    void freeze() {
+        if (isFrozen()) {
+            return;
+        }
+        getSummaries();
+        ClassMetrics.sort(classes);
+        classes = toFrozenList(classes);
+        afferentPackages.freeze(getSymbolTable());
+        efferentPackages.freeze(getSymbolTable());
         for (ClassMetrics mclass : classes) {
-            value = Math.max(value, mclass.getMetricValue(sort));
+            mclass.freeze();
         }
-        return new BigDecimal(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+        super.freeze();
     }
     
     public static void sort(List<PackageMetrics> packages) {
@@ -206,10 +266,12 @@ public class PackageMetrics extends Metrics {
     
     public void collectMetricsAfterXMLImport() {
         ClassMetrics.sort(classes);
-        sortNames(afferentPackageNames);
-        sortNames(efferentPackageNames);
+        afferentPackages.normalize();
+        efferentPackages.normalize();
         for (ClassMetrics mclass : classes) {
             mclass.collectMetricsAfterXMLImport();
         }
+        aggregate = null;
+        summaries = null;
     }
 }
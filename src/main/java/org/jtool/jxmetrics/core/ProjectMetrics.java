@@ -23,14 +23,9 @@ import org.jtool.jxmetrics.measurement.NOFD;
 import org.jtool.jxmetrics.measurement.NOPMD;
 import org.jtool.jxmetrics.measurement.NOPFD;
 import org.jtool.jxmetrics.measurement.NOMDFD;
-import org.jtool.jxmetrics.measurement.NOFILE;
-import org.jtool.jxmetrics.measurement.NOPG;
-import org.jtool.jxmetrics.measurement.Metric;
 import org.jtool.srcmodel.JavaProject;
 import java.util.List;
 import java.util.ArrayList;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 
 /**
  * Stores metric information on a project.
@@ -45,22 +40,49 @@ public class ProjectMetrics extends Metrics {
     
     protected String path;
     
+    private MetricSelection selection = MetricSelection.ALL;
+    private SymbolTable symbolTable;
+    
     protected List<PackageMetrics> packages = new ArrayList<>();
+    private List<ClassMetrics> frozenClasses;
+    
+    private MetricAggregate packageAggregate;
+    private MetricAggregate classAggregate;
+    private MetricSummaries summaries = new MetricSummaries();
     
     public ProjectMetrics(String name, String path) {
+        this(name, path, new SymbolTable());
+    }
+    
+    public ProjectMetrics(String name, String path, SymbolTable symbolTable) {
         super(name);
         this.path = path;
+        this.symbolTable = symbolTable;
     }
     
     public ProjectMetrics(JavaProject jproject) {
-        this(jproject.getName(), jproject.getTopPath());
+        this(jproject, MetricSelection.ALL);
+    }
+    
+    public ProjectMetrics(JavaProject jproject, MetricSelection selection) {
+        this(jproject, selection, new SymbolTable());
+    }
+    
+    public ProjectMetrics(JavaProject jproject, MetricSelection selection, SymbolTable symbolTable) {
+        this(jproject.getName(), jproject.getTopPath(), symbolTable);
         this.jproject = jproject;
+        this.selection = selection;
     }
     
     public void collect(JavaProject jproject) {
         PackageMetrics.sort(packages);
+        packageAggregate = null;
+        classAggregate = null;
+        collectSummaries();
         collectMetrics(jproject);
         collectMetricsMax();
+        packageAggregate = null;
+        classAggregate = null;
     }
     
     public String getName() {
@@ -75,6 +97,15 @@ public class ProjectMetrics extends Metrics {
         return jproject;
     }
     
+    @Override
+    public MetricSelection getMetricSelection() {
+        return selection;
+    }
+    
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+    
     public void addPackage(PackageMetrics mpackage) {
         if (!packages.contains(mpackage)) {
             packages.add(mpackage);
@@ -86,10 +117,16 @@ public class ProjectMetrics extends Metrics {
     }
     
     public void sortPackages() {
+        if (isFrozen()) {
+            return;
+        }
         PackageMetrics.sort(packages);
     }
     
     public List<ClassMetrics> getClasses() {
+        if (frozenClasses != null) {
+            return frozenClasses;
+        }
         List<ClassMetrics> classes = new ArrayList<ClassMetrics>();
         for (PackageMetrics mpackage : getPackages()) {
             classes.addAll(mpackage.getClasses());
@@ -98,29 +135,25 @@ public class ProjectMetrics extends Metrics {
         return classes;
     }
     
-    private void collectMetrics(JavaProject jproject) {
-        putSumMetricValue(LOC.Name);
-        putSumMetricValue(NOST.Name);
-        
-        putMetricValue(NOFILE.Name, new NOFILE().calculate(jproject));
-        putMetricValue(NOPG.Name, new NOPG().calculate(jproject));
-        
-        putSumMetricValue(NOCL.Name);
-        putSumMetricValue(NOMD.Name);
-        putSumMetricValue(NOFD.Name);
-        putSumMetricValue(NOMDFD.Name);
-        putSumMetricValue(NOPMD.Name);
-        putSumMetricValue(NOPFD.Name);
-        
-        putSumMetricValue(NOACL.Name);
-        putSumMetricValue(NOECL.Name);
-        
-        putSumMetricValue(CBO.Name);
-        putSumMetricValue(DIT.Name);
-        putSumMetricValue(NOC.Name);
-        putSumMetricValue(RFC.Name);
-        putSumMetricValue(WMC.Name);
-        putSumMetricValue(LCOM.Name);
+    @Override
+    void freeze() {
+        if (isFrozen()) {
+            return;
+        }
+        if (summaries == null) {
+            collectSummaries();
+        }
+        PackageMetrics.sort(packages);
+        packages = toFrozenList(packages);
+        for (PackageMetrics mpackage : packages) {
+            mpackage.freeze();
+        }
+        frozenClasses = toFrozenList(getClasses());
+        super.freeze();
+    }
+    
+    protected void collectMetrics(JavaProject jproject) {
+        calculateMetrics(MetricCalculator.Level.PROJECT, jproject, jproject);
     }
     
     protected void collectMetricsMax() {
@@ -148,30 +181,54 @@ public class ProjectMetrics extends Metrics {
         putMaxMetricValue(TCC.Name);
     }
     
-    private void putSumMetricValue(String sort) {
-        metricValues.put(sort, sum(sort));
+    private void putMaxMetricValue(String sort) {
+        if (isSelected(sort)) {
+            metricValues.putMax(sort, max(sort));
+        }
+    }
+    
+    protected double sum(String sort) {
+        if (packageAggregate == null) {
+            packageAggregate = new MetricAggregate();
+            for (PackageMetrics mpackage : packages) {
+                packageAggregate.add(mpackage.metricValues);
+            }
+        }
+        return packageAggregate.getSum(sort);
     }
     
-    private void putMaxMetricValue(String sort) {
-        metricValues.put(Metric.MAX + sort, max(sort));
+    protected double max(String sort) {
+        if (classAggregate == null) {
+            classAggregate = new MetricAggregate();
+            for (PackageMetrics mpackage : packages) {
+                for (ClassMetrics mclass : mpackage.getClasses()) {
+                    classAggregate.add(mclass.metricValues);
+                }
+            }
+        }
+        return classAggregate.getMax(sort);
     }
     
-    private Double sum(String sort) {
-        double value = 0;
+    private void collectSummaries() {
+        summaries = new MetricSummaries();
         for (PackageMetrics mpackage : packages) {
-            value = value + mpackage.getMetricValue(sort);
+            summaries.add(MetricCalculator.Level.PACKAGE, mpackage.metricValues);
+            summaries.merge(mpackage.getSummaries());
         }
-        return new BigDecimal(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
     }
     
-    protected Double max(String sort) {
-        double value = 0;
-        for (PackageMetrics mpackage : packages) {
-            for (ClassMetrics mclass : mpackage.getClasses()) {
-                value = Math.max(value, mclass.getMetricValue(sort));
-            }
+    /**
+     * Returns the summary of the values of a metric over the elements at a level in this project.
+     * The summaries of the packages are merged without revisiting their elements.
+     * @param level the level of the elements, which is {@code PACKAGE}, {@code CLASS}, {@code METHOD}, or {@code FIELD}
+     * @param sort the name of the metric
+     * @return the summary, which is empty if no value was found
+     */
+    public MetricSummary getSummary(MetricCalculator.Level level, String sort) {
+        if (summaries == null) {
+            collectSummaries();
         }
-        return new BigDecimal(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+        return summaries.get(level, sort);
     }
     
     public void collectMetricsAfterXMLImport() {
@@ -179,5 +236,6 @@ public class ProjectMetrics extends Metrics {
         for (PackageMetrics mpackage : packages) {
             mpackage.collectMetricsAfterXMLImport();
         }
+        summaries = null;
     }
 }
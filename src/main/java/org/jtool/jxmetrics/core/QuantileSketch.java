@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import java.util.Arrays;
+
+/**
+ * Estimates quantiles of a stream of values within a bounded amount of memory.
+ * Values are kept in compactors whose items at level h stand for 2^h values.
+ * When a compactor is full, its sorted items are halved and promoted to the next level.
+ * Sketches can be merged, so a summary of a package can be combined into that of a project.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+class QuantileSketch {
+    
+    private static final double[] EMPTY = new double[0];
+    
+    private final int k;
+    private double[][] levels = new double[0][];
+    private int[] sizes = new int[0];
+    private boolean odd = false;
+    
+    QuantileSketch(int k) {
+        this.k = Math.max(k, 2);
+    }
+    
+    void update(double value) {
+        append(0, value);
+        if (sizes[0] >= k) {
+            compact(0);
+        }
+    }
+    
+    void merge(QuantileSketch other) {
+        for (int level = 0; level < other.sizes.length; level++) {
+            for (int index = 0; index < other.sizes[level]; index++) {
+                append(level, other.levels[level][index]);
+            }
+        }
+        for (int level = 0; level < sizes.length; level++) {
+            if (sizes[level] >= k) {
+                compact(level);
+            }
+        }
+    }
+    
+    private void append(int level, double value) {
+        if (level >= levels.length) {
+            int length = levels.length;
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+            Arrays.fill(levels, length, level + 1, EMPTY);
+        }
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.min(Math.max(8, sizes[level] * 2), Math.max(k, sizes[level] + 1)));
+        }
+        levels[level][sizes[level]] = value;
+        sizes[level]++;
+    }
+    
+    private void compact(int level) {
+        double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        
+        int start = odd ? 1 : 0;
+        odd = !odd;
+        double carry = items[size - 1];
+        for (int index = start; index < size - (size % 2); index += 2) {
+            append(level + 1, items[index]);
+        }
+        sizes[level] = 0;
+        if (size % 2 == 1) {
+            items[0] = carry;
+            sizes[level] = 1;
+        }
+        if (sizes[level + 1] >= k) {
+            compact(level + 1);
+        }
+    }
+    
+    long getWeight() {
+        long weight = 0;
+        for (int level = 0; level < sizes.length; level++) {
+            weight = weight + ((long)sizes[level] << level);
+        }
+        return weight;
+    }
+    
+    double getQuantile(double q) {
+        long total = getWeight();
+        if (total == 0) {
+            return Double.NaN;
+        }
+        
+        int count = 0;
+        for (int level = 0; level < sizes.length; level++) {
+            count = count + sizes[level];
+        }
+        double[] values = new double[count];
+        long[] weights = new long[count];
+        int index = 0;
+        for (int level = 0; level < sizes.length; level++) {
+            for (int i = 0; i < sizes[level]; i++) {
+                values[index] = levels[level][i];
+                weights[index] = 1L << level;
+                index++;
+            }
+        }
+        Integer[] sorted = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (i1, i2) -> Double.compare(values[i1], values[i2]));
+        
+        double rank = Math.min(Math.max(q, 0.0), 1.0) * total;
+        long cumulative = 0;
+        for (int i = 0; i < count; i++) {
+            cumulative = cumulative + weights[sorted[i]];
+            if (cumulative >= rank) {
+                return values[sorted[i]];
+            }
+        }
+        return values[sorted[count - 1]];
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.jxmetrics.core.MetricCalculator.Cost;
+import org.jtool.jxmetrics.measurement.LOC;
+import org.jtool.jxmetrics.measurement.NOST;
+import org.jtool.jxmetrics.measurement.NOFILE;
+import org.jtool.jxmetrics.measurement.NOPG;
+import org.jtool.jxmetrics.measurement.NOCL;
+import org.jtool.jxmetrics.measurement.NOMD;
+import org.jtool.jxmetrics.measurement.NOFD;
+import org.jtool.jxmetrics.measurement.NOMDFD;
+import org.jtool.jxmetrics.measurement.NOPMD;
+import org.jtool.jxmetrics.measurement.NOPFD;
+import org.jtool.jxmetrics.measurement.NOAPG;
+import org.jtool.jxmetrics.measurement.NOEPG;
+import org.jtool.jxmetrics.measurement.NOACL;
+import org.jtool.jxmetrics.measurement.NOECL;
+import org.jtool.jxmetrics.measurement.NOAMD;
+import org.jtool.jxmetrics.measurement.NOEMD;
+import org.jtool.jxmetrics.measurement.NOEFD;
+import org.jtool.jxmetrics.measurement.CBO;
+import org.jtool.jxmetrics.measurement.DIT;
+import org.jtool.jxmetrics.measurement.NOC;
+import org.jtool.jxmetrics.measurement.RFC;
+import org.jtool.jxmetrics.measurement.WMC;
+import org.jtool.jxmetrics.measurement.LCOM;
+import org.jtool.jxmetrics.measurement.CYCLO;
+import org.jtool.jxmetrics.measurement.NEST;
+import org.jtool.jxmetrics.measurement.LVAR;
+import org.jtool.jxmetrics.measurement.PAR;
+import org.jtool.jxmetrics.measurement.ATFD;
+import org.jtool.jxmetrics.measurement.FDP;
+import org.jtool.jxmetrics.measurement.TCC;
+import org.jtool.jxmetrics.measurement.LAA;
+import org.jtool.jxmetrics.measurement.IMetric;
+import java.util.List;
+import java.util.ArrayList;
+
+/**
+ * Provides the calculators of the metrics built into JxMetrics.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class StandardMetricProvider implements MetricProvider {
+    
+    private static final LOC loc = new LOC();
+    private static final NOST nost = new NOST();
+    private static final NOFILE nofile = new NOFILE();
+    private static final NOPG nopg = new NOPG();
+    private static final NOCL nocl = new NOCL();
+    private static final NOMD nomd = new NOMD();
+    private static final NOFD nofd = new NOFD();
+    private static final NOMDFD nomdfd = new NOMDFD();
+    private static final NOPMD nopmd = new NOPMD();
+    private static final NOPFD nopfd = new NOPFD();
+    private static final NOAPG noapg = new NOAPG();
+    private static final NOEPG noepg = new NOEPG();
+    private static final NOACL noacl = new NOACL();
+    private static final NOECL noecl = new NOECL();
+    private static final NOAMD noamd = new NOAMD();
+    private static final NOEMD noemd = new NOEMD();
+    private static final NOEFD noefd = new NOEFD();
+    private static final CBO cbo = new CBO();
+    private static final DIT dit = new DIT();
+    private static final NOC noc = new NOC();
+    private static final RFC rfc = new RFC();
+    private static final WMC wmc = new WMC();
+    private static final LCOM lcom = new LCOM();
+    private static final CYCLO cyclo = new CYCLO();
+    private static final NEST nest = new NEST();
+    private static final LVAR lvar = new LVAR();
+    private static final PAR par = new PAR();
+    private static final ATFD atfd = new ATFD();
+    private static final FDP fdp = new FDP();
+    private static final TCC tcc = new TCC();
+    private static final LAA laa = new LAA();
+    
+    @Override
+    public List<MetricCalculator<?, ?>> getCalculators() {
+        List<MetricCalculator<?, ?>> calculators = new ArrayList<>();
+        
+        calculators.add(MetricCalculator.forField(LOC.Name, Cost.LOW, (jp, jfield, m) -> loc.calculate(jfield)));
+        calculators.add(MetricCalculator.forField(NOST.Name, Cost.MEDIUM, (jp, jfield, m) -> nost.calculate(jfield)));
+        
+        calculators.add(MetricCalculator.forMethod(LOC.Name, Cost.LOW, (jp, jmethod, m) -> loc.calculate(jmethod)));
+        calculators.add(MetricCalculator.forMethod(NOST.Name, Cost.MEDIUM, (jp, jmethod, m) -> nost.calculate(jmethod)));
+        calculators.add(MetricCalculator.forMethod(NOAMD.Name, Cost.LOW, (jp, jmethod, m) -> noamd.calculate(jmethod)));
+        calculators.add(MetricCalculator.forMethod(NOEMD.Name, Cost.LOW, (jp, jmethod, m) -> noemd.calculate(jmethod)));
+        calculators.add(MetricCalculator.forMethod(NOEFD.Name, Cost.LOW, (jp, jmethod, m) -> noefd.calculate(jmethod)));
+        calculators.add(MetricCalculator.forMethod(CYCLO.Name, Cost.MEDIUM, (jp, jmethod, m) -> cyclo.calculate(jmethod)));
+        calculators.add(MetricCalculator.forMethod(LVAR.Name, Cost.MEDIUM, (jp, jmethod, m) -> lvar.calculate(jmethod)));
+        calculators.add(MetricCalculator.forMethod(NEST.Name, Cost.MEDIUM, (jp, jmethod, m) -> nest.calculate(jmethod)));
+        calculators.add(MetricCalculator.forMethod(PAR.Name, Cost.LOW, (jp, jmethod, m) -> par.calculate(jmethod)));
+        calculators.add(MetricCalculator.forMethod(ATFD.Name, Cost.HIGH, (jp, jmethod, m) -> atfd.calculate(jp, jmethod)));
+        calculators.add(MetricCalculator.forMethod(FDP.Name, Cost.HIGH, (jp, jmethod, m) -> fdp.calculate(jp, jmethod)));
+        
+        calculators.add(MetricCalculator.forClass(LOC.Name, Cost.LOW, (jp, jclass, m) -> m.sum(LOC.Name)));
+        calculators.add(MetricCalculator.forClass(NOST.Name, Cost.LOW, (jp, jclass, m) -> m.sum(NOST.Name)));
+        calculators.add(MetricCalculator.forClass(NOMD.Name, Cost.LOW, (jp, jclass, m) -> nomd.calculate(jclass)));
+        calculators.add(MetricCalculator.forClass(NOFD.Name, Cost.LOW, (jp, jclass, m) -> nofd.calculate(jclass)));
+        calculators.add(MetricCalculator.forClass(NOMDFD.Name, Cost.LOW, (jp, jclass, m) -> nomdfd.calculate(jclass)));
+        calculators.add(MetricCalculator.forClass(NOPMD.Name, Cost.LOW, (jp, jclass, m) -> nopmd.calculate(jclass)));
+        calculators.add(MetricCalculator.forClass(NOPFD.Name, Cost.LOW, (jp, jclass, m) -> nopfd.calculate(jclass)));
+        calculators.add(MetricCalculator.forClass(NOACL.Name, Cost.LOW, (jp, jclass, m) -> noacl.calculate(jclass)));
+        calculators.add(MetricCalculator.forClass(NOECL.Name, Cost.LOW, (jp, jclass, m) -> noecl.calculate(jclass)));
+        calculators.add(MetricCalculator.forClass(NOAMD.Name, Cost.LOW, (jp, jclass, m) -> m.sum(NOAMD.Name)));
+        calculators.add(MetricCalculator.forClass(NOEMD.Name, Cost.LOW, (jp, jclass, m) -> m.sum(NOEMD.Name)));
+        calculators.add(MetricCalculator.forClass(NOEFD.Name, Cost.LOW, (jp, jclass, m) -> m.sum(NOEFD.Name)));
+        calculators.add(MetricCalculator.forClass(CBO.Name, Cost.HIGH, (jp, jclass, m) -> cbo.calculate(jp, jclass)));
+        calculators.add(MetricCalculator.forClass(DIT.Name, Cost.LOW, (jp, jclass, m) -> dit.calculate(jclass)));
+        calculators.add(MetricCalculator.forClass(NOC.Name, Cost.LOW, (jp, jclass, m) -> noc.calculate(jclass)));
+        calculators.add(MetricCalculator.forClass(RFC.Name, Cost.MEDIUM, (jp, jclass, m) -> rfc.calculate(jclass)));
+        calculators.add(MetricCalculator.forClass(WMC.Name, Cost.LOW, (jp, jclass, m) -> m.sum(CYCLO.Name),
+                CYCLO.Name));
+        calculators.add(MetricCalculator.forClass(LCOM.Name, Cost.HIGH, (jp, jclass, m) -> lcom.calculate(jp, jclass)));
+        calculators.add(MetricCalculator.forClass(ATFD.Name, Cost.LOW, (jp, jclass, m) -> m.sum(ATFD.Name)));
+        calculators.add(MetricCalculator.forClass(TCC.Name, Cost.HIGH, (jp, jclass, m) -> tcc.calculate(jp, jclass)));
+        
+        calculators.add(MetricCalculator.forPackage(LOC.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(LOC.Name)));
+        calculators.add(MetricCalculator.forPackage(NOST.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(NOST.Name)));
+        calculators.add(MetricCalculator.forPackage(NOMD.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(NOMD.Name)));
+        calculators.add(MetricCalculator.forPackage(NOFD.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(NOFD.Name)));
+        calculators.add(MetricCalculator.forPackage(NOMDFD.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(NOMDFD.Name)));
+        calculators.add(MetricCalculator.forPackage(NOPMD.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(NOPMD.Name)));
+        calculators.add(MetricCalculator.forPackage(NOPFD.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(NOPFD.Name)));
+        calculators.add(MetricCalculator.forPackage(NOAPG.Name, Cost.LOW, (jp, jpackage, m) -> noapg.calculate(jpackage)));
+        calculators.add(MetricCalculator.forPackage(NOEPG.Name, Cost.LOW, (jp, jpackage, m) -> noepg.calculate(jpackage)));
+        calculators.add(MetricCalculator.forPackage(NOACL.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(NOACL.Name)));
+        calculators.add(MetricCalculator.forPackage(NOECL.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(NOECL.Name)));
+        calculators.add(MetricCalculator.forPackage(CBO.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(CBO.Name)));
+        calculators.add(MetricCalculator.forPackage(DIT.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(DIT.Name)));
+        calculators.add(MetricCalculator.forPackage(NOC.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(NOC.Name)));
+        calculators.add(MetricCalculator.forPackage(RFC.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(RFC.Name)));
+        calculators.add(MetricCalculator.forPackage(WMC.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(WMC.Name)));
+        calculators.add(MetricCalculator.forPackage(LCOM.Name, Cost.LOW, (jp, jpackage, m) -> m.sum(LCOM.Name)));
+        
+        calculators.add(MetricCalculator.forProject(LOC.Name, Cost.LOW, (jp, jproject, m) -> m.sum(LOC.Name)));
+        calculators.add(MetricCalculator.forProject(NOST.Name, Cost.LOW, (jp, jproject, m) -> m.sum(NOST.Name)));
+        calculators.add(MetricCalculator.forProject(NOFILE.Name, Cost.LOW, (jp, jproject, m) -> nofile.calculate(jproject)));
+        calculators.add(MetricCalculator.forProject(NOPG.Name, Cost.LOW, (jp, jproject, m) -> nopg.calculate(jproject)));
+        calculators.add(MetricCalculator.forProject(NOCL.Name, Cost.LOW, (jp, jproject, m) -> m.sum(NOCL.Name)));
+        calculators.add(MetricCalculator.forProject(NOMD.Name, Cost.LOW, (jp, jproject, m) -> m.sum(NOMD.Name)));
+        calculators.add(MetricCalculator.forProject(NOFD.Name, Cost.LOW, (jp, jproject, m) -> m.sum(NOFD.Name)));
+        calculators.add(MetricCalculator.forProject(NOMDFD.Name, Cost.LOW, (jp, jproject, m) -> m.sum(NOMDFD.Name)));
+        calculators.add(MetricCalculator.forProject(NOPMD.Name, Cost.LOW, (jp, jproject, m) -> m.sum(NOPMD.Name)));
+        calculators.add(MetricCalculator.forProject(NOPFD.Name, Cost.LOW, (jp, jproject, m) -> m.sum(NOPFD.Name)));
+        calculators.add(MetricCalculator.forProject(NOACL.Name, Cost.LOW, (jp, jproject, m) -> m.sum(NOACL.Name)));
+        calculators.add(MetricCalculator.forProject(NOECL.Name, Cost.LOW, (jp, jproject, m) -> m.sum(NOECL.Name)));
+        calculators.add(MetricCalculator.forProject(CBO.Name, Cost.LOW, (jp, jproject, m) -> m.sum(CBO.Name)));
+        calculators.add(MetricCalculator.forProject(DIT.Name, Cost.LOW, (jp, jproject, m) -> m.sum(DIT.Name)));
+        calculators.add(MetricCalculator.forProject(NOC.Name, Cost.LOW, (jp, jproject, m) -> m.sum(NOC.Name)));
+        calculators.add(MetricCalculator.forProject(RFC.Name, Cost.LOW, (jp, jproject, m) -> m.sum(RFC.Name)));
+        calculators.add(MetricCalculator.forProject(WMC.Name, Cost.LOW, (jp, jproject, m) -> m.sum(WMC.Name)));
+        calculators.add(MetricCalculator.forProject(LCOM.Name, Cost.LOW, (jp, jproject, m) -> m.sum(LCOM.Name)));
+        
+        return calculators;
+    }
+    
+    @Override
+    public List<IMetric> getMetrics() {
+        return List.of(loc, nost, nofile, nopg, nocl, nomd, nofd, nomdfd, nopmd, nopfd,
+                noapg, noepg, noacl, noecl, noamd, noemd, noefd,
+                cbo, dit, noc, rfc, wmc, lcom, cyclo, nest, lvar, par,
+                atfd, fdp, tcc, laa);
+    }
+}
@@ -6,7 +6,6 @@
 package org.jtool.jxmetrics.core;
 
 import org.eclipse.jdt.core.dom.ASTVisitor;
-import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.AssertStatement;
 import org.eclipse.jdt.core.dom.BreakStatement;
 import org.eclipse.jdt.core.dom.ConstructorInvocation;
@@ -27,8 +26,6 @@ import org.eclipse.jdt.core.dom.TryStatement;
 import org.eclipse.jdt.core.dom.TypeDeclarationStatement;
 import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
 import org.eclipse.jdt.core.dom.WhileStatement;
-import java.util.List;
-import java.util.ArrayList;
 
 /**
  * Parses Java source code and stores information on statements appearing in a method.
@@ -62,7 +59,7 @@ import java.util.ArrayList;
  */
 public class StatementCollector extends ASTVisitor {
     
-    private List<ASTNode> nodes = new ArrayList<>();
+    private int numberOfStatements;
     
     private int numberOfNesting;
     
@@ -73,7 +70,7 @@ public class StatementCollector extends ASTVisitor {
     public StatementCollector() {
         super();
         
-        nodes = new ArrayList<>();
+        numberOfStatements = 0;
         numberOfNesting = 0;
         maxNumberOfNesting = 0;
         cyclomaticNumber = 1;
@@ -81,31 +78,31 @@ public class StatementCollector extends ASTVisitor {
     
     @Override
     public boolean visit(AssertStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         return true;
     }
     
     @Override
     public boolean visit(BreakStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         return true;
     }
     
     @Override
     public boolean visit(ConstructorInvocation node) {
-        nodes.add(node);
+        numberOfStatements++;
         return true;
     }
     
     @Override
     public boolean visit(ContinueStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         return true;
     }
     
     @Override
     public boolean visit(DoStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         cyclomaticNumber++;
         incNestCount();
         return true;
@@ -118,7 +115,7 @@ public class StatementCollector extends ASTVisitor {
     
     @Override
     public boolean visit(EnhancedForStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         cyclomaticNumber++;
         incNestCount();
         return true;
@@ -131,13 +128,13 @@ public class StatementCollector extends ASTVisitor {
     
     @Override
     public boolean visit(ExpressionStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         return true;
     }
     
     @Override
     public boolean visit(ForStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         cyclomaticNumber++;
         incNestCount();
         return true;
@@ -150,7 +147,7 @@ public class StatementCollector extends ASTVisitor {
     
     @Override
     public boolean visit(IfStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         cyclomaticNumber++;
         incNestCount();
         return true;
@@ -163,25 +160,25 @@ public class StatementCollector extends ASTVisitor {
     
     @Override
     public boolean visit(LabeledStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         return true;
     }
     
     @Override
     public boolean visit(ReturnStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         return true;
     }
     
     @Override
     public boolean visit(SuperConstructorInvocation node) {
-        nodes.add(node);
+        numberOfStatements++;
         return true;
     }
     
     @Override
     public boolean visit(SwitchCase node) {
-        nodes.add(node);
+        numberOfStatements++;
         cyclomaticNumber++;
         incNestCount();
         return true;
@@ -194,25 +191,25 @@ public class StatementCollector extends ASTVisitor {
     
     @Override
     public boolean visit(SwitchStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         return true;
     }
     
     @Override
     public boolean visit(SynchronizedStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         return true;
     }
     
     @Override
     public boolean visit(ThrowStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         return true;
     }
     
     @Override
     public boolean visit(TryStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         cyclomaticNumber++;
         incNestCount();
         return true;
@@ -225,19 +222,19 @@ public class StatementCollector extends ASTVisitor {
     
     @Override
     public boolean visit(TypeDeclarationStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         return true;
     }
     
     @Override
     public boolean visit(VariableDeclarationStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         return true;
     }
     
     @Override
     public boolean visit(WhileStatement node) {
-        nodes.add(node);
+        numberOfStatements++;
         cyclomaticNumber++;
         incNestCount();
         return true;
@@ -261,7 +258,7 @@ public class StatementCollector extends ASTVisitor {
     }
     
     public int getNumberOfStatements() {
-        return nodes.size();
+        return numberOfStatements;
     }
     
     public int getMaximumNuberOfNesting() {
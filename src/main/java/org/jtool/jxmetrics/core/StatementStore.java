@@ -0,0 +1,46 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.srcmodel.JavaMethod;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores information on statements collected from methods.
+ * A method is traversed only once, and the result is shared by NOST, NEST, CYCLO, and WMC.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class StatementStore {
+    
+    private static StatementStore instance = new StatementStore();
+    
+    protected Map<JavaMethod, StatementCollector> statementStore = new ConcurrentHashMap<>();
+    
+    private StatementStore() {
+    }
+    
+    public static StatementStore getInstance() {
+        return instance;
+    }
+    
+    public StatementCollector get(JavaMethod jmethod) {
+        return statementStore.computeIfAbsent(jmethod, jm -> collect(jm));
+    }
+    
+    public void clear() {
+        statementStore.clear();
+    }
+    
+    private StatementCollector collect(JavaMethod jmethod) {
+        StatementCollector statementCollector = new StatementCollector();
+        if (jmethod.getASTNode() != null) {
+            jmethod.getASTNode().accept(statementCollector);
+        }
+        return statementCollector;
+    }
+}
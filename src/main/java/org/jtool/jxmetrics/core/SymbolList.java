@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Stores a set of names as identifiers of a symbol table.
+ * Identifiers are appended without checking duplicates, and are sorted and deduplicated
+ * when the list is normalized or read.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class SymbolList {
+    
+    private static final int[] EMPTY = new int[0];
+    
+    private int[] ids = EMPTY;
+    private int size = 0;
+    private boolean normalized = true;
+    private List<String> frozenNames = null;
+    
+    public void add(int id) {
+        if (frozenNames != null) {
+            throw new UnsupportedOperationException("A frozen list cannot be modified");
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(4, size + (size >> 1)));
+        }
+        ids[size] = id;
+        size++;
+        normalized = false;
+    }
+    
+    public void normalize() {
+        if (normalized) {
+            return;
+        }
+        
+        Arrays.sort(ids, 0, size);
+        int count = 0;
+        for (int index = 0; index < size; index++) {
+            if (count == 0 || ids[count - 1] != ids[index]) {
+                ids[count] = ids[index];
+                count++;
+            }
+        }
+        ids = count == 0 ? EMPTY : Arrays.copyOf(ids, count);
+        size = count;
+        normalized = true;
+    }
+    
+    public int size() {
+        normalize();
+        return size;
+    }
+    
+    public boolean contains(int id) {
+        normalize();
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+    
+    public int[] getIds() {
+        normalize();
+        return Arrays.copyOf(ids, size);
+    }
+    
+    /**
+     * Normalizes this list and fixes its names, after which this list cannot be modified.
+     * @param symbols the symbol table that holds the names
+     */
+    public void freeze(SymbolTable symbols) {
+        if (frozenNames == null) {
+            frozenNames = Collections.unmodifiableList(getNames(symbols));
+        }
+    }
+    
+    public List<String> getNames(SymbolTable symbols) {
+        if (frozenNames != null) {
+            return frozenNames;
+        }
+        normalize();
+        List<String> names = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            names.add(symbols.getName(ids[index]));
+        }
+        Collections.sort(names);
+        return names;
+    }
+}
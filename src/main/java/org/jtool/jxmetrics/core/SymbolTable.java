@@ -0,0 +1,60 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the fully-qualified names of classes and packages into integer identifiers.
+ * A table is shared by all the projects in a store, so each name is kept only once.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class SymbolTable {
+    
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    
+    private Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[][] chunks = new String[0][];
+    private int size = 0;
+    
+    public int getId(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id.intValue();
+        }
+        return register(name);
+    }
+    
+    public String getName(int id) {
+        return chunks[id >>> CHUNK_BITS][id & (CHUNK_SIZE - 1)];
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    private synchronized int register(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id.intValue();
+        }
+        
+        int chunk = size >>> CHUNK_BITS;
+        if (chunk == chunks.length) {
+            String[][] newChunks = Arrays.copyOf(chunks, chunk + 1);
+            newChunks[chunk] = new String[CHUNK_SIZE];
+            chunks = newChunks;
+        }
+        chunks[chunk][size & (CHUNK_SIZE - 1)] = name;
+        ids.put(name, size);
+        size++;
+        return size - 1;
+    }
+}
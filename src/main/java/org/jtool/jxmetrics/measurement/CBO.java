@@ -9,9 +9,13 @@ import org.jtool.jxmetrics.core.ProjectMetrics;
 import org.jtool.jxmetrics.core.PackageMetrics;
 import org.jtool.jxmetrics.core.ClassMetrics;
 import org.jtool.jxmetrics.core.UnsupportedMetricsException;
+import org.jtool.jxmetrics.core.AfferentClosure;
+import org.jtool.srcmodel.JavaProject;
 import org.jtool.srcmodel.JavaClass;
-import java.util.List;
-import java.util.ArrayList;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.Deque;
+import java.util.ArrayDeque;
 
 /**
  * Measures the value of Coupling Between Objects.
@@ -30,19 +34,22 @@ public class CBO extends Metric {
         super(Name, Description);
     }
     
-    public double calculate(JavaClass jclass) {
-        List<JavaClass> classes = new ArrayList<JavaClass>();
-        collectCoupledClasses(jclass, classes);
-        return (double)classes.size();
+    public double calculate(JavaProject jproject, JavaClass jclass) {
+        return (double)AfferentClosure.getInstance(jproject).getNumberOfReachableClasses(jclass);
     }
     
-    private void collectCoupledClasses(JavaClass jclass, List<JavaClass> classes) {
-        for (JavaClass jc : jclass.getAfferentClassesInProject()) {
-            if (!classes.contains(jc)) {
-                classes.add(jc);
-                collectCoupledClasses(jc, classes);
+    public double calculate(JavaClass jclass) {
+        Set<JavaClass> classes = new HashSet<JavaClass>();
+        Deque<JavaClass> stack = new ArrayDeque<JavaClass>();
+        stack.push(jclass);
+        while (!stack.isEmpty()) {
+            for (JavaClass jc : stack.pop().getAfferentClassesInProject()) {
+                if (classes.add(jc)) {
+                    stack.push(jc);
+                }
             }
         }
+        return (double)classes.size();
     }
     
     @Override
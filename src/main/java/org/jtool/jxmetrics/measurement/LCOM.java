@@ -9,11 +9,17 @@ import org.jtool.jxmetrics.core.ProjectMetrics;
 import org.jtool.jxmetrics.core.PackageMetrics;
 import org.jtool.jxmetrics.core.ClassMetrics;
 import org.jtool.jxmetrics.core.UnsupportedMetricsException;
+import org.jtool.jxmetrics.core.FieldAccessIndex;
+import org.jtool.srcmodel.JavaProject;
 import org.jtool.srcmodel.JavaClass;
 import org.jtool.srcmodel.JavaMethod;
 import org.jtool.srcmodel.JavaField;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.BitSet;
 
 /**
  * Measures the value of Lack of Cohesion Methods.
@@ -29,25 +35,54 @@ public class LCOM extends Metric {
         super(Name, Description);
     }
     
+    public double calculate(JavaProject jproject, JavaClass jclass) {
+        FieldAccessIndex index = FieldAccessIndex.getInstance(jproject);
+        List<Collection<JavaField>> accessedFields = new ArrayList<Collection<JavaField>>();
+        for (JavaMethod jm : jclass.getMethods()) {
+            accessedFields.add(index.getDirectlyAccessedFields(jm));
+        }
+        return calculate(accessedFields);
+    }
+    
     public double calculate(JavaClass jclass) {
-        int accessedMethods = 0;
-        int cohesiveMethods = 0;
+        List<Collection<JavaField>> accessedFields = new ArrayList<Collection<JavaField>>();
+        for (JavaMethod jm : jclass.getMethods()) {
+            accessedFields.add(jm.getAccessedFieldsInProject());
+        }
+        return calculate(accessedFields);
+    }
+    
+    /**
+     * Calculates the value from the fields accessed by each method.
+     * @param accessedFields the collections of the fields accessed by the respective methods
+     * @return the calculated value
+     */
+    static <T> double calculate(List<? extends Collection<T>> accessedFields) {
+        long[][] matrix = new long[accessedFields.size()][];
+        int[] numFields = new int[accessedFields.size()];
         
-        List<JavaMethod> jmethods = new ArrayList<JavaMethod>(jclass.getMethods());
-        for (int i = 0; i < jmethods.size(); i++) {
-            for (int j = i + 1; j < jmethods.size(); j++) {
-                JavaMethod jm1 = jmethods.get(i);
-                JavaMethod jm2 = jmethods.get(j);
-                
-                for (JavaField jf1 : jm1.getAccessedFieldsInProject()) {
-                    for (JavaField jf2 : jm2.getAccessedFieldsInProject()) {
-                        if (jf1.equals(jf2)) {
-                            cohesiveMethods++;
-                        } else {
-                            accessedMethods++;
-                        }
-                    }
+        Map<T, Integer> fieldIds = new HashMap<T, Integer>();
+        for (int i = 0; i < accessedFields.size(); i++) {
+            BitSet fields = new BitSet();
+            for (T jf : accessedFields.get(i)) {
+                Integer id = fieldIds.get(jf);
+                if (id == null) {
+                    id = fieldIds.size();
+                    fieldIds.put(jf, id);
                 }
+                fields.set(id);
+            }
+            matrix[i] = fields.toLongArray();
+            numFields[i] = fields.cardinality();
+        }
+        
+        long accessedMethods = 0;
+        long cohesiveMethods = 0;
+        for (int i = 0; i < matrix.length; i++) {
+            for (int j = i + 1; j < matrix.length; j++) {
+                int sharedFields = countSharedFields(matrix[i], matrix[j]);
+                cohesiveMethods = cohesiveMethods + sharedFields;
+                accessedMethods = accessedMethods + (long)numFields[i] * numFields[j] - sharedFields;
             }
         }
         
@@ -57,6 +92,15 @@ public class LCOM extends Metric {
         return 0.0;
     }
     
+    private static int countSharedFields(long[] fields1, long[] fields2) {
+        int num = 0;
+        int length = Math.min(fields1.length, fields2.length);
+        for (int k = 0; k < length; k++) {
+            num = num + Long.bitCount(fields1[k] & fields2[k]);
+        }
+        return num;
+    }
+    
     @Override
     public double valueOf(ProjectMetrics mproject) throws UnsupportedMetricsException {
         return mproject.getMetricValueWithException(Name);
@@ -15,6 +15,10 @@ import org.jtool.srcmodel.JavaClass;
 import org.jtool.srcmodel.JavaMethod;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Collection;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.BitSet;
 
 /**
  * Measures the value of Tight Class Cohesion.
@@ -38,19 +42,57 @@ public class TCC extends Metric {
             }
         }
         
-        int n = methods.size();
-        int np = (n * (n - 1)) / 2;
-        int ndc = 0;
-        
         List<List<String>> accessedFields = new ArrayList<List<String>>();
         for (JavaMethod jm : methods) {
             accessedFields.add(ClassMetrics.getAccessedFields(jproject, jclass, jm));
         }
+        return calculate(accessedFields);
+    }
+    
+    /**
+     * Calculates the value from the fields accessed by each method.
+     * @param accessedFields the collections of the fields accessed by the respective methods
+     * @return the calculated value
+     */
+    static <T> double calculate(List<? extends Collection<T>> accessedFields) {
+        int n = accessedFields.size();
+        int np = (n * (n - 1)) / 2;
+        int ndc = 0;
         
-        for (int i = 0; i < accessedFields.size(); i++) {
-            for (int j = i + 1; j < accessedFields.size(); j++) {
-                if (isConnected(accessedFields.get(i), accessedFields.get(j))) {
-                    ndc++;
+        Map<T, Integer> fieldIds = new HashMap<T, Integer>();
+        List<BitSet> fieldSets = new ArrayList<BitSet>();
+        for (Collection<T> names : accessedFields) {
+            BitSet fields = new BitSet();
+            for (T name : names) {
+                Integer id = fieldIds.get(name);
+                if (id == null) {
+                    id = fieldIds.size();
+                    fieldIds.put(name, id);
+                }
+                fields.set(id);
+            }
+            fieldSets.add(fields);
+        }
+        
+        if (fieldIds.size() <= Long.SIZE) {
+            long[] fields = new long[n];
+            for (int i = 0; i < n; i++) {
+                long[] words = fieldSets.get(i).toLongArray();
+                fields[i] = words.length > 0 ? words[0] : 0L;
+            }
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    if ((fields[i] & fields[j]) != 0L) {
+                        ndc++;
+                    }
+                }
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    if (fieldSets.get(i).intersects(fieldSets.get(j))) {
+                        ndc++;
+                    }
                 }
             }
         }
@@ -62,16 +104,6 @@ public class TCC extends Metric {
         return result;
     }
     
-    private boolean isConnected(List<String> method1, List<String> method2) {
-        for (String field : method1) {
-            if (method2.contains(field)) {
-                return true;
-            }
-        }
-        return false;
-    }
-    
-    
     @Override
     public double valueOf(ProjectMetrics mproject) throws UnsupportedMetricsException {
         return mproject.getMetricValueWithException(Name);
@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.jxplatform.builder.ModelBuilderBatch;
+import org.jtool.srcmodel.JavaProject;
+import org.jtool.srcmodel.JavaClass;
+import org.jtool.srcmodel.JavaMethod;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
+
+/**
+ * Tests that the recognition of getters and setters from the AST agrees with the recognition from CFGs
+ * on the sample project, which contains accesses qualified with {@code this} and {@code super},
+ * unary and compound operators, and lazy initialization.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class AccessorRecognizerTest {
+    
+    private static ModelBuilderBatch builder;
+    private static JavaProject jproject;
+    private static Map<String, JavaMethod> jmethods = new HashMap<>();
+    
+    @BeforeClass
+    public static void build() {
+        builder = new ModelBuilderBatch(false, false);
+        builder.setConsoleVisible(false);
+        List<JavaProject> jprojects = builder.build("sample", ParallelCalculationTest.SAMPLE);
+        jproject = jprojects.get(0);
+        for (JavaClass jclass : jproject.getClasses()) {
+            for (JavaMethod jmethod : jclass.getMethods()) {
+                String name = jclass.getName();
+                jmethods.put(name.substring(name.lastIndexOf('.') + 1) + "#" + jmethod.getName(), jmethod);
+            }
+        }
+    }
+    
+    @AfterClass
+    public static void unbuild() {
+        builder.unbuild();
+    }
+    
+    @Test
+    public void testGetters() {
+        int decided = 0;
+        for (JavaMethod jmethod : jmethods.values()) {
+            AccessorRecognizer.Result result = AccessorRecognizer.recognizeGetter(jmethod);
+            if (result != AccessorRecognizer.Result.UNKNOWN) {
+                assertEquals(jmethod.getSignature(), MethodMetrics.isGetter(jproject, jmethod),
+                        result == AccessorRecognizer.Result.ACCESSOR);
+                decided++;
+            }
+        }
+        assertTrue(decided > 0);
+        
+        assertEquals(AccessorRecognizer.Result.ACCESSOR, recognizeGetter("Shape#getName"));
+        assertEquals(AccessorRecognizer.Result.ACCESSOR, recognizeGetter("Counter#getValue"));
+        assertEquals(AccessorRecognizer.Result.ACCESSOR, recognizeGetter("Square#getSideAsInt"));
+        assertEquals(AccessorRecognizer.Result.UNKNOWN, recognizeGetter("Circle#getRadius"));
+        assertEquals(AccessorRecognizer.Result.UNKNOWN, recognizeGetter("Circle#getSuperName"));
+        assertEquals(AccessorRecognizer.Result.UNKNOWN, recognizeGetter("Circle#isEmpty"));
+        assertEquals(AccessorRecognizer.Result.UNKNOWN, recognizeGetter("Circle#nextCount"));
+        assertEquals(AccessorRecognizer.Result.UNKNOWN, recognizeGetter("Counter#getNegative"));
+        assertEquals(AccessorRecognizer.Result.UNKNOWN, recognizeGetter("Counter#getValueInBlock"));
+        assertEquals(AccessorRecognizer.Result.UNKNOWN, recognizeGetter("Counter#getSynchronizedValue"));
+    }
+    
+    @Test
+    public void testSetters() {
+        int decided = 0;
+        for (JavaMethod jmethod : jmethods.values()) {
+            AccessorRecognizer.Result result = AccessorRecognizer.recognizeSetter(jmethod);
+            if (result != AccessorRecognizer.Result.UNKNOWN) {
+                assertEquals(jmethod.getSignature(), MethodMetrics.isSetter(jproject, jmethod),
+                        result == AccessorRecognizer.Result.ACCESSOR);
+                decided++;
+            }
+        }
+        assertTrue(decided > 0);
+        
+        assertEquals(AccessorRecognizer.Result.UNKNOWN, recognizeSetter("Shape#setName"));
+        assertEquals(AccessorRecognizer.Result.UNKNOWN, recognizeSetter("Circle#setFilled"));
+        assertEquals(AccessorRecognizer.Result.UNKNOWN, recognizeSetter("Circle#addCount"));
+        assertEquals(AccessorRecognizer.Result.UNKNOWN, recognizeSetter("Counter#setValueTwice"));
+        assertEquals(AccessorRecognizer.Result.NOT_ACCESSOR, recognizeSetter("Square#setSide"));
+    }
+    
+    @Test
+    public void testAccessorIndex() {
+        AccessorIndex index = AccessorIndex.getInstance(jproject);
+        for (JavaMethod jmethod : jmethods.values()) {
+            boolean accessor = MethodMetrics.isGetter(jproject, jmethod) || MethodMetrics.isSetter(jproject, jmethod);
+            assertEquals(jmethod.getSignature(), accessor, index.isAccessor(jmethod));
+        }
+        AccessorIndex.remove(jproject);
+    }
+    
+    private AccessorRecognizer.Result recognizeGetter(String name) {
+        return AccessorRecognizer.recognizeGetter(jmethods.get(name));
+    }
+    
+    private AccessorRecognizer.Result recognizeSetter(String name) {
+        return AccessorRecognizer.recognizeSetter(jmethods.get(name));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Tests the counts of reachable nodes against the recursive traversal that CBO used before the condensation.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class AfferentClosureTest {
+    
+    private Map<String, List<String>> graph = new HashMap<>();
+    
+    private void addEdge(String from, String to) {
+        graph.computeIfAbsent(from, n -> new ArrayList<>()).add(to);
+        graph.computeIfAbsent(to, n -> new ArrayList<>());
+    }
+    
+    private List<String> getSuccessors(String node) {
+        return graph.getOrDefault(node, new ArrayList<>());
+    }
+    
+    private int countByBaseline(String node) {
+        List<String> nodes = new ArrayList<>();
+        collect(node, nodes);
+        return nodes.size();
+    }
+    
+    private void collect(String node, List<String> nodes) {
+        for (String succ : getSuccessors(node)) {
+            if (!nodes.contains(succ)) {
+                nodes.add(succ);
+                collect(succ, nodes);
+            }
+        }
+    }
+    
+    private void assertSameAsBaseline() {
+        Condensation<String> condensation = new Condensation<>(graph.keySet(), this::getSuccessors);
+        for (String node : graph.keySet()) {
+            assertEquals(node, countByBaseline(node), condensation.getNumberOfReachableNodes(node));
+        }
+    }
+    
+    @Test
+    public void testChain() {
+        addEdge("A", "B");
+        addEdge("B", "C");
+        addEdge("C", "D");
+        assertSameAsBaseline();
+        
+        Condensation<String> condensation = new Condensation<>(graph.keySet(), this::getSuccessors);
+        assertEquals(3, condensation.getNumberOfReachableNodes("A"));
+        assertEquals(0, condensation.getNumberOfReachableNodes("D"));
+    }
+    
+    @Test
+    public void testCycle() {
+        addEdge("A", "B");
+        addEdge("B", "C");
+        addEdge("C", "A");
+        addEdge("C", "D");
+        addEdge("E", "A");
+        assertSameAsBaseline();
+        
+        Condensation<String> condensation = new Condensation<>(graph.keySet(), this::getSuccessors);
+        assertEquals(4, condensation.getNumberOfReachableNodes("A"));
+        assertEquals(4, condensation.getNumberOfReachableNodes("E"));
+    }
+    
+    @Test
+    public void testSelfReference() {
+        addEdge("A", "A");
+        addEdge("A", "B");
+        addEdge("C", "A");
+        assertSameAsBaseline();
+        
+        Condensation<String> condensation = new Condensation<>(graph.keySet(), this::getSuccessors);
+        assertEquals(2, condensation.getNumberOfReachableNodes("A"));
+        assertEquals(0, condensation.getNumberOfReachableNodes("B"));
+    }
+    
+    @Test
+    public void testNodesOutsideRoots() {
+        addEdge("A", "B");
+        addEdge("B", "C");
+        addEdge("C", "B");
+        Condensation<String> condensation = new Condensation<>(List.of("A"), this::getSuccessors);
+        assertEquals(2, condensation.getNumberOfReachableNodes("A"));
+        assertEquals(2, condensation.getNumberOfReachableNodes("C"));
+        assertEquals(0, condensation.getNumberOfReachableNodes("X"));
+    }
+    
+    @Test
+    public void testRandomGraphs() {
+        Random random = new Random(17);
+        for (int trial = 0; trial < 50; trial++) {
+            graph.clear();
+            int size = 1 + random.nextInt(40);
+            int numEdges = random.nextInt(size * 3);
+            for (int i = 0; i < size; i++) {
+                graph.put("N" + i, new ArrayList<>());
+            }
+            for (int i = 0; i < numEdges; i++) {
+                addEdge("N" + random.nextInt(size), "N" + random.nextInt(size));
+            }
+            assertSameAsBaseline();
+        }
+    }
+    
+    @Test
+    public void testLongChain() {
+        for (int i = 0; i < 100000; i++) {
+            addEdge("N" + i, "N" + (i + 1));
+        }
+        Condensation<String> condensation = new Condensation<>(graph.keySet(), this::getSuccessors);
+        assertEquals(100000, condensation.getNumberOfReachableNodes("N0"));
+        assertEquals(1, condensation.getNumberOfReachableNodes("N99999"));
+    }
+}
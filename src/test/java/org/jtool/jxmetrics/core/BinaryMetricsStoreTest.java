@@ -0,0 +1,85 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests reading corrupt binary files.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class BinaryMetricsStoreTest {
+    
+    private byte[] export() throws IOException {
+        MetricsStore mstore = new MetricsManager().importXML(ColumnarMetricsStoreTest.SAMPLE_XML);
+        Path path = Files.createTempFile("metrics", BinaryMetricsStore.BINARY_FILENAME_EXT);
+        try {
+            BinaryMetricsStore.write(mstore, path);
+            return Files.readAllBytes(path);
+        } finally {
+            Files.delete(path);
+        }
+    }
+    
+    private void read(byte[] bytes) throws IOException {
+        Path path = Files.createTempFile("metrics", BinaryMetricsStore.BINARY_FILENAME_EXT);
+        try {
+            Files.write(path, bytes);
+            BinaryMetricsStore.read(path);
+        } finally {
+            Files.delete(path);
+        }
+    }
+    
+    @Test
+    public void testTruncated() throws IOException {
+        byte[] bytes = export();
+        for (int length = 0; length < bytes.length; length++) {
+            try {
+                read(Arrays.copyOf(bytes, length));
+                fail("Read a file truncated at " + length);
+            } catch (IOException e) {
+            }
+        }
+    }
+    
+    @Test
+    public void testCorrupted() throws IOException {
+        byte[] bytes = export();
+        Random random = new Random(23);
+        for (int position = 8; position < bytes.length; position++) {
+            byte[] corrupted = bytes.clone();
+            corrupted[position] = (byte)(random.nextInt(255) + 1 + corrupted[position]);
+            try {
+                read(corrupted);
+            } catch (IOException e) {
+            } catch (RuntimeException e) {
+                fail("Corrupted at " + position + ": " + e);
+            }
+        }
+    }
+    
+    @Test
+    public void testNegativeCount() throws IOException {
+        byte[] bytes = export();
+        byte[] corrupted = Arrays.copyOf(bytes, 13);
+        System.arraycopy(new byte[] { (byte)0xff, (byte)0xff, (byte)0xff, (byte)0xff, 0x0f }, 0, corrupted, 8, 5);
+        try {
+            read(corrupted);
+            fail("Read a negative count");
+        } catch (IOException e) {
+            assertEquals("Corrupt binary metrics file", e.getMessage());
+        }
+    }
+}
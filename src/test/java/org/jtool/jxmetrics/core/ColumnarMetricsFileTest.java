@@ -0,0 +1,64 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.jxmetrics.core.MetricCalculator.Level;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests querying a columnar file.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class ColumnarMetricsFileTest {
+    
+    @Test
+    public void testConcurrentQueries() throws Exception {
+        MetricsStore mstore = new MetricsManager().importXML(ColumnarMetricsStoreTest.SAMPLE_XML);
+        ColumnarMetricsStore cstore = mstore.toColumnar();
+        Path path = Files.createTempFile("metrics", ColumnarMetricsFile.COLUMNAR_FILENAME_EXT);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            ColumnarMetricsFile.write(mstore, path);
+            try (ColumnarMetricsFile cfile = ColumnarMetricsFile.open(path)) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < 64; i++) {
+                    futures.add(executor.submit(() -> {
+                        for (Level level : Level.values()) {
+                            for (int row = 0; row < cstore.getRowCount(level); row++) {
+                                assertEquals(cstore.getQualifiedName(level, row), cfile.getQualifiedName(level, row));
+                                assertEquals(cstore.getMetricValue(level, row, "LOC"),
+                                        cfile.getMetricValue(level, row, "LOC"), 0.0);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                int count = 0;
+                for (Level level : Level.values()) {
+                    if (cfile.hasColumn(level, "LOC")) {
+                        count = count + 64 * cstore.getRowCount(level);
+                    }
+                }
+                assertEquals(count, cfile.getDecodedChunkCount());
+            }
+        } finally {
+            executor.shutdown();
+            Files.delete(path);
+        }
+    }
+}
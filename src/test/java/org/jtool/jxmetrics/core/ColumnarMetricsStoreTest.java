@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.jxmetrics.core.MetricCalculator.Level;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Tests the conversion of a store into a columnar store.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class ColumnarMetricsStoreTest {
+    
+    static final String SAMPLE_XML = Paths.get("src", "test", "resources", "metrics", "sample.xml")
+            .toAbsolutePath().toString();
+    
+    @Test
+    public void testSourceUnchanged() {
+        MetricsManager manager = new MetricsManager();
+        MetricsStore mstore = manager.importXML(SAMPLE_XML);
+        MetricsStore expected = manager.importXML(SAMPLE_XML);
+        MethodMetrics mmethod = mstore.getProjectMetrics().get(0).getClasses().get(0).getMethods().get(0);
+        MetricValues values = mmethod.metricValues;
+        
+        mstore.toColumnar();
+        assertSame(values, mmethod.metricValues);
+        MetricsStoreAssert.assertSameStore(expected, mstore);
+    }
+    
+    @Test
+    public void testElements() {
+        MetricsStore mstore = new MetricsManager().importXML(SAMPLE_XML);
+        ColumnarMetricsStore cstore = mstore.toColumnar();
+        
+        assertEquals(2, cstore.getRowCount(Level.PROJECT));
+        assertEquals(2, cstore.getRowCount(Level.PACKAGE));
+        assertEquals(3, cstore.getRowCount(Level.CLASS));
+        assertEquals(3, cstore.getRowCount(Level.METHOD));
+        assertEquals(1, cstore.getRowCount(Level.FIELD));
+        
+        for (ProjectMetrics mproject : mstore.getProjectMetrics()) {
+            for (ClassMetrics mclass : mproject.getClasses()) {
+                ColumnarMetricsStore.Element element = find(cstore, Level.CLASS, mclass.getQualifiedName());
+                assertEquals(mclass.getName(), element.getName());
+                assertEquals(mclass.getPath(), element.getPath());
+                assertEquals(mclass.getKind().toString(), element.getKind());
+                assertEquals(mclass.getModifiers(), element.getModifiers());
+                assertEquals(mclass.getStartPosition(), element.getStartPosition());
+                assertEquals(mclass.getEndPosition(), element.getEndPosition());
+                assertEquals(mclass.getUpperLineNumber(), element.getUpperLineNumber());
+                assertEquals(mclass.getBottomLineNumber(), element.getBottomLineNumber());
+                assertEquals(mclass.getSuperClassName(), element.getSuperClassName());
+                assertEquals(mclass.getSuperInterfaceNames(), element.getSuperInterfaceNames());
+                assertEquals(mclass.getAfferentClasses(), element.getAfferentNames());
+                assertEquals(mclass.getEfferentClasses(), element.getEfferentNames());
+                assertEquals(mclass.getMetricValues(), element.getMetricValues());
+                assertEquals(mclass.getPackage().getName(), element.getParent().getName());
+                
+                List<ColumnarMetricsStore.Element> methods = element.getChildren(Level.METHOD);
+                assertEquals(mclass.getMethods().size(), methods.size());
+                for (int index = 0; index < methods.size(); index++) {
+                    MethodMetrics mmethod = mclass.getMethods().get(index);
+                    ColumnarMetricsStore.Element method = methods.get(index);
+                    assertEquals(mmethod.getQualifiedName(), method.getQualifiedName());
+                    assertEquals(mmethod.getType(), method.getType());
+                    assertEquals(mmethod.getKind().toString(), method.getKind());
+                    assertEquals(mmethod.getMetricValues(), method.getMetricValues());
+                    assertEquals(element, method.getParent());
+                }
+            }
+        }
+        
+        ColumnarMetricsStore.Element shapes = find(cstore, Level.PACKAGE, "shapes");
+        assertEquals(List.of("app"), shapes.getAfferentNames());
+        assertNull(shapes.getKind());
+        assertTrue(Double.isNaN(find(cstore, Level.CLASS, "shapes.Circle").getMetricValue("TCC")));
+        
+        ColumnarMetricsStore.Element empty = find(cstore, Level.PROJECT, "empty");
+        assertEquals("/work/empty", empty.getPath());
+        assertTrue(empty.getChildren(Level.PACKAGE).isEmpty());
+        assertTrue(empty.getChildren(Level.CLASS).isEmpty());
+        assertNull(empty.getParent());
+    }
+    
+    @Test
+    public void testChildRange() {
+        ColumnarMetricsStore cstore = new MetricsManager().importXML(SAMPLE_XML).toColumnar();
+        for (int row = 0; row < cstore.getRowCount(Level.CLASS); row++) {
+            int first = cstore.getFirstChild(Level.METHOD, row);
+            int end = cstore.getChildEnd(Level.METHOD, row);
+            for (int child = first; child < end; child++) {
+                assertEquals(row, cstore.getParent(Level.METHOD, child));
+            }
+        }
+        int row = find(cstore, Level.CLASS, "shapes.Shape").getRow();
+        assertEquals(cstore.getFirstChild(Level.METHOD, row), cstore.getChildEnd(Level.METHOD, row));
+    }
+    
+    @Test
+    public void testAbsentMetrics() {
+        ColumnarMetricsStore cstore = new MetricsManager().importXML(SAMPLE_XML).toColumnar();
+        ColumnarMetricsStore.Element method = find(cstore, Level.METHOD, "shapes.Circle#面積()");
+        assertEquals("面積", method.getName());
+        assertFalse(method.hasMetricValue("LOC"));
+        assertEquals(0.0, method.getMetricValue("LOC"), 0.0);
+        assertTrue(method.getMetricValues().isEmpty());
+        assertFalse(cstore.hasMetricValue(Level.METHOD, method.getRow(), "LOC"));
+    }
+    
+    private ColumnarMetricsStore.Element find(ColumnarMetricsStore cstore, Level level, String fqn) {
+        for (ColumnarMetricsStore.Element element : cstore.getElements(level)) {
+            if (element.getQualifiedName().equals(fqn)) {
+                return element;
+            }
+        }
+        throw new AssertionError("No element " + fqn);
+    }
+}
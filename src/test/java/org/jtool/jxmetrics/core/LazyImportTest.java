@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.jxmetrics.core.MetricCalculator.Level;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Tests that a lazy import of an XML file results in the same store as an eager import
+ * once the members of classes are loaded.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class LazyImportTest {
+    
+    private MetricsManager manager = new MetricsManager();
+    
+    private void loadMembers(MetricsStore mstore) {
+        for (ProjectMetrics mproject : mstore.getProjectMetrics()) {
+            for (ClassMetrics mclass : mproject.getClasses()) {
+                mclass.getMethods();
+                mclass.getFields();
+            }
+        }
+    }
+    
+    private void assertSkipped(MetricsStore mstore) {
+        int skipped = 0;
+        for (ProjectMetrics mproject : mstore.getProjectMetrics()) {
+            for (ClassMetrics mclass : mproject.getClasses()) {
+                if (mclass.hasSkippedMembers()) {
+                    skipped++;
+                }
+            }
+        }
+        assertTrue(skipped > 0);
+    }
+    
+    private void assertSameSummaries(MetricsStore expected, MetricsStore actual) {
+        for (int i = 0; i < expected.getProjectMetrics().size(); i++) {
+            ProjectMetrics mproject = expected.getProjectMetrics().get(i);
+            ProjectMetrics other = actual.getProjectMetrics().get(i);
+            for (Level level : new Level[] { Level.CLASS, Level.METHOD, Level.FIELD }) {
+                for (String sort : new String[] { "LOC", "CYCLO" }) {
+                    MetricSummary summary = mproject.getSummary(level, sort);
+                    MetricSummary otherSummary = other.getSummary(level, sort);
+                    assertEquals(summary == null, otherSummary == null);
+                    if (summary != null) {
+                        assertEquals(summary.getCount(), otherSummary.getCount());
+                        assertEquals(summary.getMean(), otherSummary.getMean(), 1.0E-9);
+                        assertEquals(summary.getMax(), otherSummary.getMax(), 0.0);
+                    }
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testLazyImport() {
+        MetricsStore eager = manager.importXML(ColumnarMetricsStoreTest.SAMPLE_XML);
+        MetricsStore lazy = manager.importXML(ColumnarMetricsStoreTest.SAMPLE_XML, true);
+        assertSkipped(lazy);
+        assertSameSummaries(eager, lazy);
+        
+        loadMembers(lazy);
+        MetricsStoreAssert.assertSameStore(eager, lazy);
+    }
+    
+    @Test
+    public void testFreeze() {
+        MetricsStore eager = manager.importXML(ColumnarMetricsStoreTest.SAMPLE_XML);
+        MetricsStore lazy = manager.importXML(ColumnarMetricsStoreTest.SAMPLE_XML, true).freeze();
+        MetricsStoreAssert.assertSameStore(eager, lazy);
+    }
+    
+    @Test
+    public void testFallback() throws IOException {
+        String xml = new String(Files.readAllBytes(Paths.get(ColumnarMetricsStoreTest.SAMPLE_XML)),
+                StandardCharsets.UTF_8);
+        Path path = Files.createTempFile("metrics", MetricsManager.XML_FILENAME_EXT);
+        try {
+            Files.write(path, xml.replaceAll(">\\s+<", "><").getBytes(StandardCharsets.UTF_8));
+            MetricsStore eager = manager.importXML(ColumnarMetricsStoreTest.SAMPLE_XML);
+            MetricsStore lazy = manager.importXML(path.toString(), true);
+            assertSkipped(lazy);
+            assertSameSummaries(eager, lazy);
+            
+            loadMembers(lazy);
+            MetricsStoreAssert.assertSameStore(eager, lazy);
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Tests iterating the metric values read from a record of a mapped file.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class MappedMetricValuesTest {
+    
+    private MappedMetricValues create(int[] ordinals, int[] ids, boolean sorted) {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + ids.length * (Integer.BYTES + Double.BYTES));
+        buffer.putInt(ids.length);
+        for (int id : ids) {
+            buffer.putInt(id);
+            buffer.putDouble(id * 10.0);
+        }
+        int[] sortIds = new int[Arrays.stream(ordinals).max().getAsInt() + 3];
+        Arrays.fill(sortIds, -1);
+        for (int id = 0; id < ordinals.length; id++) {
+            sortIds[ordinals[id]] = id;
+        }
+        return new MappedMetricValues(buffer, 0, sortIds, ordinals, sorted);
+    }
+    
+    private List<Integer> iterate(MetricValues values, int from) {
+        List<Integer> result = new ArrayList<>();
+        for (int ordinal = values.nextOrdinal(from); ordinal >= 0; ordinal = values.nextOrdinal(ordinal + 1)) {
+            result.add(ordinal);
+        }
+        return result;
+    }
+    
+    @Test
+    public void testSortedOrdinals() {
+        MappedMetricValues values = create(new int[] { 0, 2, 3, 5, 8 }, new int[] { 0, 2, 3 }, true);
+        assertEquals(List.of(0, 3, 5), iterate(values, 0));
+        assertEquals(List.of(3, 5), iterate(values, 1));
+        assertEquals(List.of(5), iterate(values, 5));
+        assertEquals(List.of(), iterate(values, 6));
+        assertEquals(30.0, values.get(5, 0.0), 0.0);
+        assertEquals(-1.0, values.get(2, -1.0), 0.0);
+    }
+    
+    @Test
+    public void testPermutedOrdinals() {
+        MappedMetricValues values = create(new int[] { 4, 1, 6, 0, 2 }, new int[] { 0, 2, 3, 4 }, false);
+        assertEquals(List.of(0, 2, 4, 6), iterate(values, 0));
+        assertEquals(List.of(4, 6), iterate(values, 3));
+        assertEquals(List.of(), iterate(values, 7));
+        assertEquals(20.0, values.get(6, 0.0), 0.0);
+    }
+    
+    @Test
+    public void testMaterialized() {
+        MappedMetricValues values = create(new int[] { 4, 1, 6, 0, 2 }, new int[] { 0, 2 }, false);
+        values.put(1, 1.0);
+        assertEquals(List.of(1, 4, 6), iterate(values, 0));
+        assertEquals(0.0, values.get(4, -1.0), 0.0);
+    }
+    
+    @Test
+    public void testEmpty() {
+        MappedMetricValues values = create(new int[] { 0, 1 }, new int[0], true);
+        assertEquals(List.of(), iterate(values, 0));
+        assertEquals(0, values.size());
+    }
+}
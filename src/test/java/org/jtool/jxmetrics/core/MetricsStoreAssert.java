@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import static org.junit.Assert.assertEquals;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two stores element by element, including their attributes, code ranges, and metric values.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+class MetricsStoreAssert {
+    
+    static void assertSameStore(MetricsStore expected, MetricsStore actual) {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getTarget(), actual.getTarget());
+        assertEquals(expected.getTimeAsString(), actual.getTimeAsString());
+        assertSameProjects(expected, actual);
+    }
+    
+    static void assertSameProjects(MetricsStore expected, MetricsStore actual) {
+        List<ProjectMetrics> expectedProjects = expected.getProjectMetrics();
+        List<ProjectMetrics> actualProjects = actual.getProjectMetrics();
+        assertEquals(expectedProjects.size(), actualProjects.size());
+        for (int i = 0; i < expectedProjects.size(); i++) {
+            ProjectMetrics mproject = expectedProjects.get(i);
+            ProjectMetrics other = actualProjects.get(i);
+            assertEquals(mproject.getName(), other.getName());
+            assertEquals(mproject.getPath(), other.getPath());
+            assertSameValues(mproject.getName(), mproject.getMetricValues(), other.getMetricValues());
+            
+            assertEquals(mproject.getPackages().size(), other.getPackages().size());
+            for (int j = 0; j < mproject.getPackages().size(); j++) {
+                assertSamePackage(mproject.getPackages().get(j), other.getPackages().get(j));
+            }
+        }
+    }
+    
+    private static void assertSamePackage(PackageMetrics expected, PackageMetrics actual) {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getAfferentPackages(), actual.getAfferentPackages());
+        assertEquals(expected.getEfferentPackages(), actual.getEfferentPackages());
+        assertSameValues(expected.getName(), expected.getMetricValues(), actual.getMetricValues());
+        
+        assertEquals(expected.getClasses().size(), actual.getClasses().size());
+        for (int i = 0; i < expected.getClasses().size(); i++) {
+            assertSameClass(expected.getClasses().get(i), actual.getClasses().get(i));
+        }
+    }
+    
+    private static void assertSameClass(ClassMetrics expected, ClassMetrics actual) {
+        assertSameMember(expected, actual);
+        assertEquals(expected.getKind(), actual.getKind());
+        assertEquals(expected.getPath(), actual.getPath());
+        assertEquals(expected.getSuperClassName(), actual.getSuperClassName());
+        assertEquals(expected.getSuperInterfaceNames(), actual.getSuperInterfaceNames());
+        assertEquals(expected.getAfferentClasses(), actual.getAfferentClasses());
+        assertEquals(expected.getEfferentClasses(), actual.getEfferentClasses());
+        
+        assertEquals(expected.getMethods().size(), actual.getMethods().size());
+        for (int i = 0; i < expected.getMethods().size(); i++) {
+            MethodMetrics mmethod = expected.getMethods().get(i);
+            assertSameMember(mmethod, actual.getMethods().get(i));
+            assertEquals(mmethod.getKind(), actual.getMethods().get(i).getKind());
+        }
+        assertEquals(expected.getFields().size(), actual.getFields().size());
+        for (int i = 0; i < expected.getFields().size(); i++) {
+            FieldMetrics mfield = expected.getFields().get(i);
+            assertSameMember(mfield, actual.getFields().get(i));
+            assertEquals(mfield.getKind(), actual.getFields().get(i).getKind());
+        }
+    }
+    
+    private static void assertSameMember(CommonMetrics expected, CommonMetrics actual) {
+        String name = expected.getQualifiedName();
+        assertEquals(name, actual.getQualifiedName());
+        assertEquals(name, expected.getName(), actual.getName());
+        assertEquals(name, expected.getType(), actual.getType());
+        assertEquals(name, expected.getModifiers(), actual.getModifiers());
+        assertEquals(name, expected.getStartPosition(), actual.getStartPosition());
+        assertEquals(name, expected.getEndPosition(), actual.getEndPosition());
+        assertEquals(name, expected.getUpperLineNumber(), actual.getUpperLineNumber());
+        assertEquals(name, expected.getBottomLineNumber(), actual.getBottomLineNumber());
+        assertSameValues(name, expected.getMetricValues(), actual.getMetricValues());
+    }
+    
+    private static void assertSameValues(String name, Map<String, Double> expected, Map<String, Double> actual) {
+        assertEquals(name, new TreeMap<>(expected), new TreeMap<>(actual));
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import java.nio.file.Paths;
+
+/**
+ * Tests that metric values calculated in parallel are the same as those calculated on a single thread.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class ParallelCalculationTest {
+    
+    static final String SAMPLE = Paths.get("src", "test", "resources", "sample").toAbsolutePath().toString();
+    
+    @Test
+    public void testThreads() {
+        MetricsStore sequential = calculate(1);
+        assertFalse(sequential.getProjectMetrics().isEmpty());
+        
+        for (int threads : new int[] { 2, 4, 8 }) {
+            MetricsStore parallel = calculate(threads);
+            MetricsStoreAssert.assertSameProjects(sequential, parallel);
+        }
+    }
+    
+    private MetricsStore calculate(int threads) {
+        MetricsManager manager = new MetricsManager();
+        try {
+            return manager.calculate("sample", SAMPLE, false, threads);
+        } finally {
+            manager.unbuild();
+        }
+    }
+}
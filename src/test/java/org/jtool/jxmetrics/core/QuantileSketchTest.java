@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests the accuracy of quantiles estimated by sketches, including those merged from other sketches.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class QuantileSketchTest {
+    
+    private static final double[] QUANTILES = { 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99 };
+    private static final double RANK_ERROR = 0.03;
+    
+    @Test
+    public void testUpdate() {
+        Random random = new Random(1);
+        double[] values = new double[100000];
+        QuantileSketch sketch = new QuantileSketch(MetricSummary.DEFAULT_SKETCH_SIZE);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 10;
+            sketch.update(values[i]);
+        }
+        
+        assertEquals(values.length, sketch.getWeight());
+        assertAccurate(values, sketch, RANK_ERROR);
+    }
+    
+    @Test
+    public void testMerge() {
+        Random random = new Random(2);
+        int size = 32;
+        int total = 0;
+        double[][] packages = new double[3000][];
+        for (int p = 0; p < packages.length; p++) {
+            packages[p] = new double[1 + 2 * random.nextInt(size)];
+            for (int i = 0; i < packages[p].length; i++) {
+                packages[p][i] = random.nextDouble();
+            }
+            total = total + packages[p].length;
+        }
+        
+        double[] values = new double[total];
+        QuantileSketch project = new QuantileSketch(size);
+        int index = 0;
+        for (double[] pvalues : packages) {
+            QuantileSketch sketch = new QuantileSketch(size);
+            for (double value : pvalues) {
+                sketch.update(value);
+                values[index++] = value;
+            }
+            project.merge(sketch);
+        }
+        
+        assertEquals(values.length, project.getWeight());
+        assertAccurate(values, project, 0.08);
+    }
+    
+    @Test
+    public void testMergeSummaries() {
+        Random random = new Random(3);
+        double[] values = new double[50000];
+        MetricSummary project = new MetricSummary();
+        MetricSummary mpackage = new MetricSummary();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * 100;
+            mpackage.add(values[i]);
+            if (random.nextInt(500) == 0) {
+                project.merge(mpackage);
+                mpackage = new MetricSummary();
+            }
+        }
+        project.merge(mpackage);
+        
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        assertEquals(values.length, project.getCount());
+        assertEquals(sorted[0], project.getMin(), 0);
+        assertEquals(sorted[sorted.length - 1], project.getMax(), 0);
+        assertEquals(exact(sorted, 0.5), project.getMedian(), 100 * RANK_ERROR);
+    }
+    
+    private void assertAccurate(double[] values, QuantileSketch sketch, double error) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            double estimate = sketch.getQuantile(q);
+            double lower = (double)lowerRank(sorted, estimate) / sorted.length;
+            double upper = (double)upperRank(sorted, estimate) / sorted.length;
+            assertTrue("q=" + q + " estimate=" + estimate + " ranks=" + lower + "-" + upper,
+                    lower - error <= q && q <= upper + error);
+        }
+    }
+    
+    private double exact(double[] sorted, double q) {
+        return sorted[(int)Math.min(sorted.length - 1, Math.ceil(q * sorted.length))];
+    }
+    
+    private int lowerRank(double[] sorted, double value) {
+        int rank = 0;
+        while (rank < sorted.length && sorted[rank] < value) {
+            rank++;
+        }
+        return rank;
+    }
+    
+    private int upperRank(double[] sorted, double value) {
+        int rank = 0;
+        while (rank < sorted.length && sorted[rank] <= value) {
+            rank++;
+        }
+        return rank;
+    }
+}
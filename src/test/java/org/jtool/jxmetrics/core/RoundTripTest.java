@@ -0,0 +1,300 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.core;
+
+import org.jtool.jxmetrics.core.MetricCalculator.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.Comparator;
+
+/**
+ * Tests exporting a store and importing it again in each of the file formats.
+ * The sample store contains absent metric values, a NaN value, a non-ASCII name, and an empty project.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class RoundTripTest {
+    
+    private Path dir;
+    private MetricsManager manager = new MetricsManager();
+    
+    @Before
+    public void createDirectory() throws IOException {
+        dir = Files.createTempDirectory("metrics");
+    }
+    
+    @After
+    public void deleteDirectory() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        Files.walk(dir).forEach(paths::add);
+        paths.sort(Comparator.reverseOrder());
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+    
+    private MetricsStore importSample() {
+        return manager.importXML(ColumnarMetricsStoreTest.SAMPLE_XML);
+    }
+    
+    @Test
+    public void testXML() {
+        String output = dir.resolve("sample.xml").toString();
+        manager.exportXML(importSample(), output);
+        MetricsStoreAssert.assertSameStore(importSample(), manager.importXML(output));
+    }
+    
+    @Test
+    public void testBinary() {
+        String output = dir.resolve("sample" + BinaryMetricsStore.BINARY_FILENAME_EXT).toString();
+        manager.exportBinary(importSample(), output);
+        MetricsStore mstore = manager.importBinary(output);
+        assertNotNull(mstore);
+        MetricsStoreAssert.assertSameStore(importSample(), mstore);
+    }
+    
+    @Test
+    public void testMapped() {
+        String output = dir.resolve("sample" + MappedMetricsStore.MAPPED_FILENAME_EXT).toString();
+        manager.exportMapped(importSample(), output);
+        MetricsStore mstore = manager.importMapped(output);
+        assertNotNull(mstore);
+        MetricsStoreAssert.assertSameStore(importSample(), mstore);
+        
+        for (ClassMetrics mclass : mstore.getProjectMetrics().get(0).getClasses()) {
+            if (mclass.getQualifiedName().equals("shapes.Circle")) {
+                assertTrue(Double.isNaN(mclass.getMetricValue("TCC")));
+                for (MethodMetrics mmethod : mclass.getMethods()) {
+                    assertEquals(mmethod.getName().equals("面積"), mmethod.getMetricValues().isEmpty());
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testColumnar() throws IOException {
+        MetricsStore mstore = importSample();
+        ColumnarMetricsStore cstore = mstore.toColumnar();
+        String output = dir.resolve("sample" + ColumnarMetricsFile.COLUMNAR_FILENAME_EXT).toString();
+        manager.exportColumnar(mstore, output);
+        
+        try (ColumnarMetricsFile cfile = manager.openColumnar(output)) {
+            assertNotNull(cfile);
+            assertEquals(mstore.getName(), cfile.getName());
+            assertEquals(mstore.getTarget(), cfile.getTarget());
+            assertEquals(mstore.getTimeAsString(), cfile.getTime());
+            
+            for (Level level : Level.values()) {
+                assertEquals(cstore.getRowCount(level), cfile.getRowCount(level));
+                Set<String> sorts = new HashSet<>();
+                for (int row = 0; row < cstore.getRowCount(level); row++) {
+                    assertEquals(cstore.getQualifiedName(level, row), cfile.getQualifiedName(level, row));
+                    assertEquals(cstore.getParent(level, row), cfile.getParent(level, row));
+                    sorts.addAll(cstore.getElement(level, row).getMetricValues().keySet());
+                }
+                
+                for (String sort : sorts) {
+                    assertTrue(cfile.hasColumn(level, sort));
+                    List<Integer> present = new ArrayList<>();
+                    for (int row = 0; row < cstore.getRowCount(level); row++) {
+                        double value = cstore.getMetricValue(level, row, sort);
+                        assertEquals(sort, value, cfile.getMetricValue(level, row, sort), 0.0);
+                        if (cstore.hasMetricValue(level, row, sort) && !Double.isNaN(value)) {
+                            present.add(row);
+                        }
+                    }
+                    int[] rows = cfile.findRows(level, sort, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+                    assertEquals(present.size(), rows.length);
+                    for (int i = 0; i < rows.length; i++) {
+                        assertEquals((int)present.get(i), rows[i]);
+                    }
+                }
+            }
+            assertFalse(cfile.hasColumn(Level.FIELD, "LOC"));
+            assertEquals(0, cfile.findRows(Level.FIELD, "LOC", 0.0, 1.0).length);
+        }
+    }
+    
+    @Test
+    public void testJsonLines() throws IOException {
+        MetricsStore mstore = importSample();
+        Path output = dir.resolve("sample.jsonl");
+        manager.exportJsonLines(mstore, output.toString());
+        
+        Map<String, Map<String, Object>> records = new HashMap<>();
+        List<String> projects = new ArrayList<>();
+        for (String line : Files.readAllLines(output, StandardCharsets.UTF_8)) {
+            Map<String, Object> record = new JsonParser(line).parseObject();
+            records.put(record.get("record") + " " + record.get(MetricsManager.FqnAttr), record);
+            if (record.get("record").equals(MetricDataJsonWriter.ProjectRecord)) {
+                projects.add((String)record.get(MetricsManager.NameAttr));
+            }
+        }
+        assertEquals(List.of("sample", "empty"), projects);
+        
+        for (ProjectMetrics mproject : mstore.getProjectMetrics()) {
+            Map<String, Object> record = records.remove(MetricDataJsonWriter.ProjectRecord + " " + mproject.getName());
+            assertEquals(mproject.getPath(), record.get(MetricsManager.PathAttr));
+            assertEquals(mstore.getTimeAsString(), record.get(MetricsManager.TimeAttr));
+            assertSameValues(mproject, record);
+            
+            for (PackageMetrics mpackage : mproject.getPackages()) {
+                record = records.remove(MetricDataJsonWriter.PackageRecord + " " + mpackage.getName());
+                assertEquals(mproject.getName(), record.get("parent"));
+                assertSameValues(mpackage, record);
+                
+                for (ClassMetrics mclass : mpackage.getClasses()) {
+                    record = records.remove(MetricDataJsonWriter.ClassRecord + " " + mclass.getQualifiedName());
+                    assertEquals(mpackage.getName(), record.get("parent"));
+                    assertEquals(mclass.getName(), record.get(MetricsManager.NameAttr));
+                    assertEquals(mclass.getPath(), record.get(MetricsManager.PathAttr));
+                    assertEquals(mclass.getKind().toString(), record.get(MetricsManager.KindAttr));
+                    assertSameCode(mclass, record);
+                    assertSameValues(mclass, record);
+                    
+                    for (MethodMetrics mmethod : mclass.getMethods()) {
+                        record = records.remove(MetricDataJsonWriter.MethodRecord + " " + mmethod.getQualifiedName());
+                        assertEquals(mclass.getQualifiedName(), record.get("parent"));
+                        assertEquals(mmethod.getName(), record.get(MetricsManager.NameAttr));
+                        assertSameCode(mmethod, record);
+                        assertSameValues(mmethod, record);
+                    }
+                    for (FieldMetrics mfield : mclass.getFields()) {
+                        record = records.remove(MetricDataJsonWriter.FieldRecord + " " + mfield.getQualifiedName());
+                        assertEquals(mclass.getQualifiedName(), record.get("parent"));
+                        assertEquals(mfield.getName(), record.get(MetricsManager.NameAttr));
+                        assertSameCode(mfield, record);
+                        assertSameValues(mfield, record);
+                    }
+                }
+            }
+        }
+        assertTrue(records.isEmpty());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void assertSameCode(CommonMetrics metrics, Map<String, Object> record) {
+        Map<String, Object> code = (Map<String, Object>)record.get(MetricsManager.CodeElem);
+        assertEquals((double)metrics.getStartPosition(), code.get(MetricsManager.StartPositionAttr));
+        assertEquals((double)metrics.getEndPosition(), code.get(MetricsManager.EndPositionAttr));
+        assertEquals((double)metrics.getUpperLineNumber(), code.get(MetricsManager.UpperLineNumberAttr));
+        assertEquals((double)metrics.getBottomLineNumber(), code.get(MetricsManager.BottomLineNumberAttr));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void assertSameValues(Metrics metrics, Map<String, Object> record) {
+        Map<String, Object> values = (Map<String, Object>)record.get(MetricsManager.MetricsElem);
+        assertEquals(metrics.getMetricValues().keySet(), values.keySet());
+        for (Map.Entry<String, Double> entry : metrics.getMetricValues().entrySet()) {
+            double value = entry.getValue();
+            if (Double.isNaN(value)) {
+                assertNull(values.get(entry.getKey()));
+            } else {
+                assertEquals(Metrics.round(value), values.get(entry.getKey()));
+            }
+        }
+    }
+    
+    /**
+     * Parses a JSON object on a line, where numbers are read as doubles.
+     */
+    private static class JsonParser {
+        
+        private String str;
+        private int pos = 0;
+        
+        private JsonParser(String str) {
+            this.str = str;
+        }
+        
+        private Map<String, Object> parseObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            expect('{');
+            if (str.charAt(pos) == '}') {
+                pos++;
+                return object;
+            }
+            do {
+                String key = parseString();
+                expect(':');
+                object.put(key, parseValue());
+            } while (next(','));
+            expect('}');
+            return object;
+        }
+        
+        private Object parseValue() {
+            char ch = str.charAt(pos);
+            if (ch == '{') {
+                return parseObject();
+            } else if (ch == '"') {
+                return parseString();
+            } else if (str.startsWith("null", pos)) {
+                pos = pos + 4;
+                return null;
+            }
+            int start = pos;
+            while (pos < str.length() && "+-0123456789.eE".indexOf(str.charAt(pos)) >= 0) {
+                pos++;
+            }
+            return Double.parseDouble(str.substring(start, pos));
+        }
+        
+        private String parseString() {
+            expect('"');
+            StringBuilder buf = new StringBuilder();
+            char ch;
+            while ((ch = str.charAt(pos++)) != '"') {
+                if (ch == '\\') {
+                    ch = str.charAt(pos++);
+                    if (ch == 'n') {
+                        ch = '\n';
+                    } else if (ch == 'r') {
+                        ch = '\r';
+                    } else if (ch == 't') {
+                        ch = '\t';
+                    } else if (ch == 'u') {
+                        ch = (char)Integer.parseInt(str.substring(pos, pos + 4), 16);
+                        pos = pos + 4;
+                    }
+                }
+                buf.append(ch);
+            }
+            return buf.toString();
+        }
+        
+        private boolean next(char ch) {
+            if (str.charAt(pos) == ch) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+        
+        private void expect(char ch) {
+            if (!next(ch)) {
+                throw new AssertionError("Expected " + ch + " at " + pos + " in " + str);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ *  Copyright 2023
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package org.jtool.jxmetrics.measurement;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.LinkedHashSet;
+import java.util.Random;
+
+/**
+ * Tests LCOM and TCC calculated with bit sets against the pairwise comparisons they used before.
+ * 
+ * @author Katsuhisa Maruyama
+ */
+public class CohesionTest {
+    
+    private static final double DELTA = 1.0E-9;
+    
+    private double calculateLCOMByBaseline(List<Set<String>> accessedFields) {
+        int accessedMethods = 0;
+        int cohesiveMethods = 0;
+        for (int i = 0; i < accessedFields.size(); i++) {
+            for (int j = i + 1; j < accessedFields.size(); j++) {
+                for (String jf1 : accessedFields.get(i)) {
+                    for (String jf2 : accessedFields.get(j)) {
+                        if (jf1.equals(jf2)) {
+                            cohesiveMethods++;
+                        } else {
+                            accessedMethods++;
+                        }
+                    }
+                }
+            }
+        }
+        if (accessedMethods > cohesiveMethods) {
+            return (double)(accessedMethods - cohesiveMethods);
+        }
+        return 0.0;
+    }
+    
+    private double calculateTCCByBaseline(List<Set<String>> accessedFields) {
+        int n = accessedFields.size();
+        int np = (n * (n - 1)) / 2;
+        int ndc = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                for (String field : accessedFields.get(i)) {
+                    if (accessedFields.get(j).contains(field)) {
+                        ndc++;
+                        break;
+                    }
+                }
+            }
+        }
+        double result = 0;
+        if (np > 0) {
+            result = (double)ndc / np;
+        }
+        return result;
+    }
+    
+    private void assertSameAsBaseline(List<Set<String>> accessedFields) {
+        assertEquals(calculateLCOMByBaseline(accessedFields), LCOM.calculate(accessedFields), DELTA);
+        assertEquals(calculateTCCByBaseline(accessedFields), TCC.calculate(accessedFields), DELTA);
+    }
+    
+    private Set<String> fields(String... names) {
+        return new LinkedHashSet<>(List.of(names));
+    }
+    
+    @Test
+    public void testNoMethods() {
+        List<Set<String>> accessedFields = new ArrayList<>();
+        assertSameAsBaseline(accessedFields);
+        assertEquals(0.0, LCOM.calculate(accessedFields), DELTA);
+        assertEquals(0.0, TCC.calculate(accessedFields), DELTA);
+    }
+    
+    @Test
+    public void testNoFields() {
+        List<Set<String>> accessedFields = List.of(fields(), fields(), fields());
+        assertSameAsBaseline(accessedFields);
+        assertEquals(0.0, LCOM.calculate(accessedFields), DELTA);
+        assertEquals(0.0, TCC.calculate(accessedFields), DELTA);
+    }
+    
+    @Test
+    public void testSingleMethod() {
+        assertSameAsBaseline(List.of(fields("a", "b")));
+    }
+    
+    @Test
+    public void testSharedAndDisjointFields() {
+        List<Set<String>> accessedFields = List.of(fields("a", "b"), fields("b", "c"), fields("d"), fields());
+        assertSameAsBaseline(accessedFields);
+        assertEquals(1.0 / 6, TCC.calculate(accessedFields), DELTA);
+        assertEquals(6.0, LCOM.calculate(accessedFields), DELTA);
+    }
+    
+    @Test
+    public void testWideClasses() {
+        Random random = new Random(7);
+        for (int numFields : new int[] { 63, 64, 65, 130 }) {
+            List<Set<String>> accessedFields = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                Set<String> names = new LinkedHashSet<>();
+                for (int k = 0; k < 5; k++) {
+                    names.add("f" + random.nextInt(numFields));
+                }
+                accessedFields.add(names);
+            }
+            Set<String> all = new LinkedHashSet<>();
+            for (int k = 0; k < numFields; k++) {
+                all.add("f" + k);
+            }
+            accessedFields.add(all);
+            assertSameAsBaseline(accessedFields);
+        }
+    }
+    
+    @Test
+    public void testRandomClasses() {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 200; trial++) {
+            int numMethods = random.nextInt(20);
+            int numFields = 1 + random.nextInt(80);
+            List<Set<String>> accessedFields = new ArrayList<>();
+            for (int i = 0; i < numMethods; i++) {
+                Set<String> names = new LinkedHashSet<>();
+                int num = random.nextInt(6);
+                for (int k = 0; k < num; k++) {
+                    names.add("f" + random.nextInt(numFields));
+                }
+                accessedFields.add(names);
+            }
+            assertSameAsBaseline(accessedFields);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package sample.app;
+
+import sample.shapes.Circle;
+import sample.shapes.Shape;
+import sample.shapes.Square;
+import sample.util.Counter;
+
+public class Main {
+    
+    private Registry registry = new Registry(this);
+    private Counter counter = new Counter();
+    
+    public double run() {
+        Shape circle = new Circle(1.0);
+        Shape square = new Square(2.0);
+        registry.register(circle);
+        registry.register(square);
+        counter.increment();
+        return circle.area() + square.area() + counter.getValue();
+    }
+    
+    public Registry getRegistry() {
+        return registry;
+    }
+}
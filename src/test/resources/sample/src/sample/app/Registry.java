@@ -0,0 +1,28 @@
+package sample.app;
+
+import java.util.ArrayList;
+import java.util.List;
+import sample.shapes.Shape;
+
+public class Registry {
+    
+    private Main owner;
+    private List<Shape> shapes = new ArrayList<>();
+    
+    public Registry(Main owner) {
+        this.owner = owner;
+    }
+    
+    public void register(Shape shape) {
+        shapes.add(shape);
+        shape.countUp();
+    }
+    
+    public Main getOwner() {
+        return owner;
+    }
+    
+    public Registry self() {
+        return this;
+    }
+}
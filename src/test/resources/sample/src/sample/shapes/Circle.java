@@ -0,0 +1,52 @@
+package sample.shapes;
+
+public class Circle extends Shape {
+    
+    private double radius;
+    private boolean filled;
+    private StringBuilder label;
+    
+    public Circle(double radius) {
+        this.radius = radius;
+    }
+    
+    public double getRadius() {
+        return this.radius;
+    }
+    
+    public void setRadius(double radius) {
+        this.radius = radius;
+    }
+    
+    public String getSuperName() {
+        return super.name;
+    }
+    
+    public boolean isEmpty() {
+        return !filled;
+    }
+    
+    public void setFilled(boolean filled) {
+        this.filled = !filled;
+    }
+    
+    public void addCount(int count) {
+        this.count += count;
+    }
+    
+    public int nextCount() {
+        return ++count;
+    }
+    
+    public StringBuilder getLabel() {
+        if (label == null) {
+            label = new StringBuilder();
+        }
+        return label;
+    }
+    
+    @Override
+    public double area() {
+        return Math.PI * radius * radius;
+    }
+}
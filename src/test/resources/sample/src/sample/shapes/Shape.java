@@ -0,0 +1,22 @@
+package sample.shapes;
+
+public abstract class Shape {
+    
+    protected String name;
+    protected int count;
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public abstract double area();
+    
+    public int countUp() {
+        count++;
+        return count;
+    }
+}
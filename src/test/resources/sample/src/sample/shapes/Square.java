@@ -0,0 +1,31 @@
+package sample.shapes;
+
+public class Square extends Shape {
+    
+    private double side;
+    
+    public Square(double side) {
+        this.side = side;
+    }
+    
+    public double getSide() {
+        return side;
+    }
+    
+    public void setSide(double side) {
+        side = side;
+    }
+    
+    public int getSideAsInt() {
+        return (int)side;
+    }
+    
+    public double getDoubleSide() {
+        return side * 2;
+    }
+    
+    @Override
+    public double area() {
+        return side * side;
+    }
+}
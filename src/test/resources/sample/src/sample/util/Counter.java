@@ -0,0 +1,43 @@
+package sample.util;
+
+public class Counter {
+    
+    private int value;
+    private boolean enabled;
+    
+    public int getValue() {
+        return (value);
+    }
+    
+    public void setValue(int value) {
+        this.value = value;
+    }
+    
+    public void setValueTwice(int v) {
+        value = v + v;
+    }
+    
+    public int getNegative() {
+        return -value;
+    }
+    
+    public boolean isDisabled() {
+        return !enabled;
+    }
+    
+    public void increment() {
+        value++;
+    }
+    
+    public synchronized int getSynchronizedValue() {
+        synchronized (this) {
+            return value;
+        }
+    }
+    
+    public int getValueInBlock() {
+        {
+            return value;
+        }
+    }
+}